@@ -0,0 +1,179 @@
+package com.willr27.blocklings.client.renderer;
+
+import com.mojang.blaze3d.matrix.MatrixStack;
+import com.mojang.blaze3d.vertex.IVertexBuilder;
+import com.willr27.blocklings.Blocklings;
+import com.willr27.blocklings.debug.BlocklingDebugInfo;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.IRenderTypeBuffer;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.vector.Matrix4f;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.client.event.RenderWorldLastEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Renders the latest debug info streamed from the server for the blockling the player is subscribed to.
+ * Nothing is rendered unless the player has subscribed using the blockling debug command.
+ */
+@Mod.EventBusSubscriber(modid = Blocklings.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class BlocklingDebugRenderer
+{
+    /**
+     * The amount to shrink the boxes of single blocks by, so boxes at the same position are all visible.
+     */
+    private static final double BLOCK_INSET = 0.05;
+
+    /**
+     * The entity id of the blockling the debug info is for, or -1 if there isn't any.
+     */
+    private static int blocklingId = -1;
+
+    /**
+     * The latest debug info, null if there isn't any.
+     */
+    @Nullable
+    private static BlocklingDebugInfo info = null;
+
+    /**
+     * Sets the latest debug info.
+     *
+     * @param blocklingId the entity id of the blockling the info is for, or -1 to clear the info.
+     * @param info the debug info, null to clear the info.
+     */
+    public static void setInfo(int blocklingId, @Nullable BlocklingDebugInfo info)
+    {
+        BlocklingDebugRenderer.blocklingId = blocklingId;
+        BlocklingDebugRenderer.info = info;
+    }
+
+    /**
+     * Clears the debug info when the player leaves the server.
+     */
+    @SubscribeEvent
+    public static void onLoggedOut(@Nonnull ClientPlayerNetworkEvent.LoggedOutEvent event)
+    {
+        setInfo(-1, null);
+    }
+
+    /**
+     * Renders the latest debug info.
+     */
+    @SubscribeEvent
+    public static void onRenderWorldLast(@Nonnull RenderWorldLastEvent event)
+    {
+        BlocklingDebugInfo info = BlocklingDebugRenderer.info;
+        Minecraft mc = Minecraft.getInstance();
+
+        if (info == null || blocklingId == -1 || mc.level == null)
+        {
+            return;
+        }
+
+        Vector3d cameraPos = mc.gameRenderer.getMainCamera().getPosition();
+        IRenderTypeBuffer.Impl buffer = mc.renderBuffers().bufferSource();
+        IVertexBuilder builder = buffer.getBuffer(RenderType.lines());
+        MatrixStack matrixStack = event.getMatrixStack();
+
+        matrixStack.pushPose();
+        matrixStack.translate(-cameraPos.x, -cameraPos.y, -cameraPos.z);
+
+        if (info.scanMin != null && info.scanMax != null)
+        {
+            AxisAlignedBB scanBox = new AxisAlignedBB(info.scanMin, info.scanMax.offset(1, 1, 1));
+            WorldRenderer.renderLineBox(matrixStack, builder, scanBox, 1.0f, 1.0f, 1.0f, 0.5f);
+        }
+
+        renderBlocks(matrixStack, builder, info.chosenBlocks, 1.0f, 0.5f, 0.0f);
+        renderBlocks(matrixStack, builder, info.badPathTargets, 1.0f, 0.0f, 0.0f);
+        renderBlocks(matrixStack, builder, info.badTargets, 1.0f, 0.0f, 1.0f);
+
+        if (info.target != null)
+        {
+            renderBlock(matrixStack, builder, info.target, 0.0f, 1.0f, 0.0f);
+        }
+
+        if (info.pathTargetPos != null)
+        {
+            renderBlock(matrixStack, builder, info.pathTargetPos, 1.0f, 1.0f, 0.0f);
+        }
+
+        renderPath(matrixStack, builder, info.pathNodes, info.nextPathNodeIndex);
+
+        matrixStack.popPose();
+
+        buffer.endBatch(RenderType.lines());
+    }
+
+    /**
+     * Renders a line through the centre of the bottom of each path node, with the nodes already passed dimmed.
+     *
+     * @param matrixStack the matrix stack.
+     * @param builder the vertex builder for lines.
+     * @param pathNodes the path nodes.
+     * @param nextPathNodeIndex the index of the next path node.
+     */
+    private static void renderPath(@Nonnull MatrixStack matrixStack, @Nonnull IVertexBuilder builder, @Nonnull List<BlockPos> pathNodes, int nextPathNodeIndex)
+    {
+        Matrix4f matrix = matrixStack.last().pose();
+
+        for (int i = 1; i < pathNodes.size(); i++)
+        {
+            BlockPos from = pathNodes.get(i - 1);
+            BlockPos to = pathNodes.get(i);
+            float alpha = i <= nextPathNodeIndex ? 0.3f : 1.0f;
+
+            builder.vertex(matrix, from.getX() + 0.5f, from.getY() + 0.1f, from.getZ() + 0.5f).color(0.0f, 1.0f, 1.0f, alpha).endVertex();
+            builder.vertex(matrix, to.getX() + 0.5f, to.getY() + 0.1f, to.getZ() + 0.5f).color(0.0f, 1.0f, 1.0f, alpha).endVertex();
+        }
+
+        if (nextPathNodeIndex >= 0 && nextPathNodeIndex < pathNodes.size())
+        {
+            BlockPos next = pathNodes.get(nextPathNodeIndex);
+            WorldRenderer.renderLineBox(matrixStack, builder, new AxisAlignedBB(next).deflate(0.4), 0.0f, 1.0f, 1.0f, 1.0f);
+        }
+    }
+
+    /**
+     * Renders a box around each of the given blocks.
+     *
+     * @param matrixStack the matrix stack.
+     * @param builder the vertex builder for lines.
+     * @param blockPositions the positions of the blocks.
+     * @param red the red component of the colour.
+     * @param green the green component of the colour.
+     * @param blue the blue component of the colour.
+     */
+    private static void renderBlocks(@Nonnull MatrixStack matrixStack, @Nonnull IVertexBuilder builder, @Nonnull List<BlockPos> blockPositions, float red, float green, float blue)
+    {
+        for (BlockPos blockPos : blockPositions)
+        {
+            renderBlock(matrixStack, builder, blockPos, red, green, blue);
+        }
+    }
+
+    /**
+     * Renders a box around the given block.
+     *
+     * @param matrixStack the matrix stack.
+     * @param builder the vertex builder for lines.
+     * @param blockPos the position of the block.
+     * @param red the red component of the colour.
+     * @param green the green component of the colour.
+     * @param blue the blue component of the colour.
+     */
+    private static void renderBlock(@Nonnull MatrixStack matrixStack, @Nonnull IVertexBuilder builder, @Nonnull BlockPos blockPos, float red, float green, float blue)
+    {
+        WorldRenderer.renderLineBox(matrixStack, builder, new AxisAlignedBB(blockPos).deflate(BLOCK_INSET), red, green, blue, 1.0f);
+    }
+}
@@ -10,9 +10,11 @@ import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
 import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import com.willr27.blocklings.Blocklings;
+import com.willr27.blocklings.debug.BlocklingDebugChannel;
 import com.willr27.blocklings.entity.blockling.BlocklingType;
 import com.willr27.blocklings.entity.blockling.attribute.BlocklingAttributes.Level;
 import com.willr27.blocklings.network.NetworkHandler;
+import com.willr27.blocklings.network.messages.DebugCommandMessage;
 import com.willr27.blocklings.network.messages.SetLevelCommandMessage;
 import com.willr27.blocklings.network.messages.SetTypeCommandMessage;
 import com.willr27.blocklings.network.messages.SetXpCommandMessage;
@@ -76,7 +78,11 @@ public class BlocklingsCommands
                                 literal("xp").then(
                                         argument("level", new BlocklingLevelArgument()).then(
                                                 argument("value", IntegerArgumentType.integer(0))
-                                                        .executes(context -> executeXpCommand(context)))))));
+                                                        .executes(context -> executeXpCommand(context)))))).then(
+                        literal("debug")
+                                .executes(context -> executeDebugCommand(context, true)).then(
+                                literal("off")
+                                        .executes(context -> executeDebugCommand(context, false)))));
     }
 
     /**
@@ -143,6 +149,34 @@ public class BlocklingsCommands
         return 0;
     }
 
+    /**
+     * Executes the blockling debug commands.
+     * Subscribing is done through the client as the blockling is the one the player is looking at.
+     *
+     * @param subscribe whether to subscribe to the blockling the player is looking at or unsubscribe.
+     */
+    private static int executeDebugCommand(@Nonnull CommandContext<CommandSource> context, boolean subscribe)
+    {
+        CommandSource source = context.getSource();
+        PlayerEntity player = (PlayerEntity) source.getEntity();
+
+        if (player == null)
+        {
+            return 1;
+        }
+
+        if (subscribe)
+        {
+            NetworkHandler.sendToClient(player, new DebugCommandMessage());
+        }
+        else
+        {
+            BlocklingDebugChannel.unsubscribe(player);
+        }
+
+        return 0;
+    }
+
     /**
      * Represents a command argument of a blockling type.
      */
@@ -104,6 +104,42 @@ public class BlocklingsConfig
         @Nonnull
         public final ForgeConfigSpec.ConfigValue<List<? extends String>> excludedCrops;
 
+        /**
+         * The max time in microseconds spent running block searches each tick in each world.
+         */
+        @Nonnull
+        public final ForgeConfigSpec.IntValue scanTimeBudget;
+
+        /**
+         * The number of positions each search tests in one slice before moving on to the next search.
+         */
+        @Nonnull
+        public final ForgeConfigSpec.IntValue scanStepsPerSlice;
+
+        /**
+         * Whether block searches run on worker threads over snapshots of the world.
+         */
+        @Nonnull
+        public final ForgeConfigSpec.ConfigValue<Boolean> offThreadSearches;
+
+        /**
+         * Whether blocklings look for better paths on worker threads over snapshots of the world.
+         */
+        @Nonnull
+        public final ForgeConfigSpec.ConfigValue<Boolean> offThreadPaths;
+
+        /**
+         * The max number of regular path recalcs blocklings can run each tick in each world.
+         */
+        @Nonnull
+        public final ForgeConfigSpec.IntValue maxPathRecalcsPerTick;
+
+        /**
+         * Whether glowstone blocklings light up the area around them on each client rather than placing light blocks on the server.
+         */
+        @Nonnull
+        public final ForgeConfigSpec.ConfigValue<Boolean> clientSideLights;
+
         /**
          * @param builder the builder used to create the config.
          */
@@ -161,6 +197,45 @@ public class BlocklingsConfig
                     .defineList("excludedCrops", () -> new ArrayList<>(), s -> true);
 
             builder.pop();
+
+            builder.push("Performance");
+
+            scanTimeBudget = builder
+                    .comment("The max time (in microseconds) spent each tick running blockling block searches (finding ores, trees, crops etc.) across each world.",
+                            "Searches that don't finish within the budget carry on over the following ticks.",
+                            "Lower this if you see lag spikes when lots of blocklings are looking for something to do.")
+                    .defineInRange("scanTimeBudget", 2000, 100, 50000);
+
+            scanStepsPerSlice = builder
+                    .comment("The number of positions each blockling's search tests in one go before moving on to the next blockling's search.",
+                            "Searches keep taking turns until the time budget for the tick runs out, so a search can test this many positions several times in a tick.")
+                    .defineInRange("scanStepsPerSlice", 4, 1, 1000);
+
+            offThreadSearches = builder
+                    .comment("Set this to true to run blockling block searches on worker threads instead of the server thread.",
+                            "The server thread only copies the nearby chunk sections for each search and checks the result before it is used.",
+                            "Results can be a few ticks out of date, and whether this helps depends on the server, so compare tick times with it on and off.")
+                    .define("offThreadSearches", false);
+
+            offThreadPaths = builder
+                    .comment("Set this to true to run the searches blocklings use to find better paths while already moving on worker threads.",
+                            "Blocklings keep following their current path until the search finishes, usually a tick or two later.",
+                            "Paths needed straight away (e.g. when a blockling is stuck or picks a new target) still run on the server thread.",
+                            "Whether this helps depends on the server, so compare tick times with it on and off.")
+                    .define("offThreadPaths", false);
+
+            maxPathRecalcsPerTick = builder
+                    .comment("The max number of regular path recalculations blocklings can run each tick across each world.",
+                            "Recalculations over the limit are queued and run first on the following ticks. Urgent ones (e.g. when a blockling is stuck) always run.")
+                    .defineInRange("maxPathRecalcsPerTick", 8, 1, 1000);
+
+            clientSideLights = builder
+                    .comment("Set this to true to have glowstone blocklings place their light blocks on each client instead of the server.",
+                            "The server then never places or removes light blocks, so moving blocklings cause no block or lighting updates on the server",
+                            "and no light blocks can be left behind in the world. Mobs will spawn in the dark as if the blocklings weren't there.")
+                    .define("clientSideLights", false);
+
+            builder.pop();
         }
     }
 
@@ -0,0 +1,171 @@
+package com.willr27.blocklings.debug;
+
+import com.willr27.blocklings.entity.blockling.BlocklingEntity;
+import com.willr27.blocklings.network.NetworkHandler;
+import com.willr27.blocklings.network.messages.BlocklingDebugMessage;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams the debug info of blocklings to the operators subscribed to them (see {@link BlocklingDebugInfo}).
+ * Each operator can be subscribed to a single blockling at a time.
+ * Subscriptions hold the blockling's entity id rather than the blockling, so they never keep an unloaded blockling in memory.
+ * Nothing is collected or sent unless someone is subscribed.
+ * Only used on the server thread.
+ */
+public class BlocklingDebugChannel
+{
+    /**
+     * The number of ticks between each update sent to a subscriber.
+     */
+    private static final int STREAM_INTERVAL = 10;
+
+    /**
+     * The subscription of each subscribed player, mapped by the player's id.
+     */
+    @Nonnull
+    private static final Map<UUID, Subscription> SUBSCRIPTIONS = new HashMap<>();
+
+    /**
+     * Subscribes the given player to the given blockling, replacing any previous subscription.
+     *
+     * @param player the player.
+     * @param blockling the blockling.
+     */
+    public static void subscribe(@Nonnull PlayerEntity player, @Nonnull BlocklingEntity blockling)
+    {
+        SUBSCRIPTIONS.put(player.getUUID(), new Subscription(blockling.level.dimension(), blockling.getId()));
+
+        send(player, blockling);
+    }
+
+    /**
+     * Unsubscribes the given player, clearing the debug info on their client.
+     *
+     * @param player the player.
+     */
+    public static void unsubscribe(@Nonnull PlayerEntity player)
+    {
+        if (SUBSCRIPTIONS.remove(player.getUUID()) != null)
+        {
+            NetworkHandler.sendToClient(player, new BlocklingDebugMessage());
+        }
+    }
+
+    /**
+     * Removes the subscription of the given player without notifying them, e.g. because they have logged out.
+     *
+     * @param player the player.
+     */
+    public static void onPlayerLoggedOut(@Nonnull PlayerEntity player)
+    {
+        SUBSCRIPTIONS.remove(player.getUUID());
+    }
+
+    /**
+     * Sends the latest debug info to each player subscribed to a blockling in the given world, every {@link #STREAM_INTERVAL} ticks.
+     * Players in another world are skipped until they return, and subscriptions to blocklings that are no longer in the world (e.g. killed or unloaded) are dropped.
+     *
+     * @param world the world being ticked.
+     */
+    public static void onWorldTick(@Nonnull World world)
+    {
+        if (SUBSCRIPTIONS.isEmpty() || world.getGameTime() % STREAM_INTERVAL != 0)
+        {
+            return;
+        }
+
+        Iterator<Map.Entry<UUID, Subscription>> iterator = SUBSCRIPTIONS.entrySet().iterator();
+
+        while (iterator.hasNext())
+        {
+            Map.Entry<UUID, Subscription> entry = iterator.next();
+            Subscription subscription = entry.getValue();
+
+            if (!subscription.dimension.equals(world.dimension()))
+            {
+                continue;
+            }
+
+            PlayerEntity player = world.getPlayerByUUID(entry.getKey());
+            Entity entity = world.getEntity(subscription.blocklingId);
+
+            if (!(entity instanceof BlocklingEntity) || !entity.isAlive())
+            {
+                iterator.remove();
+
+                if (player != null)
+                {
+                    NetworkHandler.sendToClient(player, new BlocklingDebugMessage());
+                }
+
+                continue;
+            }
+
+            if (player != null)
+            {
+                send(player, (BlocklingEntity) entity);
+            }
+        }
+    }
+
+    /**
+     * Removes the subscriptions to blocklings in the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        if (world instanceof World)
+        {
+            SUBSCRIPTIONS.values().removeIf(subscription -> subscription.dimension.equals(((World) world).dimension()));
+        }
+    }
+
+    /**
+     * Sends the latest debug info of the given blockling to the given player.
+     *
+     * @param player the player.
+     * @param blockling the blockling.
+     */
+    private static void send(@Nonnull PlayerEntity player, @Nonnull BlocklingEntity blockling)
+    {
+        NetworkHandler.sendToClient(player, new BlocklingDebugMessage(blockling.getId(), BlocklingDebugInfo.collect(blockling)));
+    }
+
+    /**
+     * A player's subscription to a blockling.
+     */
+    private static class Subscription
+    {
+        /**
+         * The dimension the blockling is in.
+         */
+        @Nonnull
+        final RegistryKey<World> dimension;
+
+        /**
+         * The entity id of the blockling.
+         */
+        final int blocklingId;
+
+        /**
+         * @param dimension the dimension the blockling is in.
+         * @param blocklingId the entity id of the blockling.
+         */
+        Subscription(@Nonnull RegistryKey<World> dimension, int blocklingId)
+        {
+            this.dimension = dimension;
+            this.blocklingId = blocklingId;
+        }
+    }
+}
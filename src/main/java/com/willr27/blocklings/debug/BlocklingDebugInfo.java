@@ -0,0 +1,244 @@
+package com.willr27.blocklings.debug;
+
+import com.willr27.blocklings.entity.blockling.BlocklingEntity;
+import com.willr27.blocklings.entity.blockling.goal.BlocklingGoal;
+import com.willr27.blocklings.entity.blockling.task.Task;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.pathfinding.Path;
+import net.minecraft.util.math.BlockPos;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A snapshot of what a blockling's active goals are currently doing, streamed to subscribed operators for rendering.
+ * Each list of positions is capped, so a single snapshot never grows too large to send.
+ */
+public class BlocklingDebugInfo
+{
+    /**
+     * The max number of positions in each list.
+     */
+    public static final int MAX_POSITIONS = 256;
+
+    /**
+     * The nodes of the current path.
+     */
+    @Nonnull
+    public final List<BlockPos> pathNodes = new ArrayList<>();
+
+    /**
+     * The index of the next path node the blockling is moving to.
+     */
+    public int nextPathNodeIndex = 0;
+
+    /**
+     * The position the current path leads to, null if there isn't one.
+     */
+    @Nullable
+    public BlockPos pathTargetPos = null;
+
+    /**
+     * The current target, null if there isn't one.
+     */
+    @Nullable
+    public BlockPos target = null;
+
+    /**
+     * The min corner of the region the last target search scanned, null if there hasn't been one.
+     */
+    @Nullable
+    public BlockPos scanMin = null;
+
+    /**
+     * The max corner of the region the last target search scanned, null if there hasn't been one.
+     */
+    @Nullable
+    public BlockPos scanMax = null;
+
+    /**
+     * The blocks the goal has chosen to gather (e.g. the vein or tree being harvested).
+     */
+    @Nonnull
+    public final List<BlockPos> chosenBlocks = new ArrayList<>();
+
+    /**
+     * The positions currently marked as bad path targets.
+     */
+    @Nonnull
+    public final List<BlockPos> badPathTargets = new ArrayList<>();
+
+    /**
+     * The positions currently marked as bad targets.
+     */
+    @Nonnull
+    public final List<BlockPos> badTargets = new ArrayList<>();
+
+    /**
+     * Collects the debug info of each of the given blockling's active goals.
+     *
+     * @param blockling the blockling.
+     * @return the debug info.
+     */
+    @Nonnull
+    public static BlocklingDebugInfo collect(@Nonnull BlocklingEntity blockling)
+    {
+        BlocklingDebugInfo info = new BlocklingDebugInfo();
+
+        for (Task task : blockling.getTasks().getPrioritisedTasks())
+        {
+            BlocklingGoal goal = task.getGoal();
+
+            if (goal != null && goal.getState() == BlocklingGoal.State.ACTIVE)
+            {
+                goal.collectDebugInfo(info);
+            }
+        }
+
+        return info;
+    }
+
+    /**
+     * Sets the path nodes from the given path.
+     *
+     * @param path the path.
+     */
+    public void setPath(@Nonnull Path path)
+    {
+        pathNodes.clear();
+
+        for (int i = 0; i < path.getNodeCount(); i++)
+        {
+            addCapped(pathNodes, path.getNode(i).asBlockPos());
+        }
+
+        nextPathNodeIndex = path.getNextNodeIndex();
+    }
+
+    /**
+     * Adds the given positions to the given list, up to {@link #MAX_POSITIONS}.
+     *
+     * @param list the list to add to.
+     * @param blockPositions the positions to add.
+     */
+    public static void addCapped(@Nonnull List<BlockPos> list, @Nonnull Iterable<BlockPos> blockPositions)
+    {
+        for (BlockPos blockPos : blockPositions)
+        {
+            if (!addCapped(list, blockPos))
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds the given position to the given list, unless the list already has {@link #MAX_POSITIONS} positions.
+     *
+     * @param list the list to add to.
+     * @param blockPos the position to add.
+     * @return true if the position was added.
+     */
+    public static boolean addCapped(@Nonnull List<BlockPos> list, @Nonnull BlockPos blockPos)
+    {
+        if (list.size() >= MAX_POSITIONS)
+        {
+            return false;
+        }
+
+        list.add(blockPos);
+
+        return true;
+    }
+
+    /**
+     * Encodes the info.
+     *
+     * @param buf the buffer to encode to.
+     */
+    public void encode(@Nonnull PacketBuffer buf)
+    {
+        encodeList(buf, pathNodes);
+        buf.writeInt(nextPathNodeIndex);
+        encodeNullable(buf, pathTargetPos);
+        encodeNullable(buf, target);
+        encodeNullable(buf, scanMin);
+        encodeNullable(buf, scanMax);
+        encodeList(buf, chosenBlocks);
+        encodeList(buf, badPathTargets);
+        encodeList(buf, badTargets);
+    }
+
+    /**
+     * Decodes and returns the info.
+     *
+     * @param buf the buffer to decode from.
+     */
+    @Nonnull
+    public static BlocklingDebugInfo decode(@Nonnull PacketBuffer buf)
+    {
+        BlocklingDebugInfo info = new BlocklingDebugInfo();
+
+        decodeList(buf, info.pathNodes);
+        info.nextPathNodeIndex = buf.readInt();
+        info.pathTargetPos = decodeNullable(buf);
+        info.target = decodeNullable(buf);
+        info.scanMin = decodeNullable(buf);
+        info.scanMax = decodeNullable(buf);
+        decodeList(buf, info.chosenBlocks);
+        decodeList(buf, info.badPathTargets);
+        decodeList(buf, info.badTargets);
+
+        return info;
+    }
+
+    /**
+     * @param buf the buffer to encode to.
+     * @param list the positions to encode.
+     */
+    private static void encodeList(@Nonnull PacketBuffer buf, @Nonnull List<BlockPos> list)
+    {
+        buf.writeInt(list.size());
+        list.forEach(buf::writeBlockPos);
+    }
+
+    /**
+     * @param buf the buffer to decode from.
+     * @param list the list to add the decoded positions to.
+     */
+    private static void decodeList(@Nonnull PacketBuffer buf, @Nonnull List<BlockPos> list)
+    {
+        int size = buf.readInt();
+
+        for (int i = 0; i < size; i++)
+        {
+            list.add(buf.readBlockPos());
+        }
+    }
+
+    /**
+     * @param buf the buffer to encode to.
+     * @param blockPos the position to encode.
+     */
+    private static void encodeNullable(@Nonnull PacketBuffer buf, @Nullable BlockPos blockPos)
+    {
+        buf.writeBoolean(blockPos != null);
+
+        if (blockPos != null)
+        {
+            buf.writeBlockPos(blockPos);
+        }
+    }
+
+    /**
+     * @param buf the buffer to decode from.
+     * @return the decoded position.
+     */
+    @Nullable
+    private static BlockPos decodeNullable(@Nonnull PacketBuffer buf)
+    {
+        return buf.readBoolean() ? buf.readBlockPos() : null;
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.collect.Iterables;
 import com.willr27.blocklings.Blocklings;
 import com.willr27.blocklings.block.BlocklingsBlocks;
 import com.willr27.blocklings.client.gui.BlocklingGuiHandler;
+import com.willr27.blocklings.config.BlocklingsConfig;
 import com.willr27.blocklings.entity.blockling.action.BlocklingActions;
 import com.willr27.blocklings.entity.blockling.attribute.BlocklingAttributes;
 import com.willr27.blocklings.entity.blockling.skill.BlocklingSkills;
@@ -15,10 +16,14 @@ import com.willr27.blocklings.inventory.EquipmentInventory;
 import com.willr27.blocklings.item.BlocklingItem;
 import com.willr27.blocklings.item.BlocklingWhistleItem;
 import com.willr27.blocklings.network.messages.BlocklingAttackTargetMessage;
+import com.willr27.blocklings.network.messages.BlocklingClientSideLightMessage;
 import com.willr27.blocklings.network.messages.BlocklingNameMessage;
 import com.willr27.blocklings.network.messages.BlocklingScaleMessage;
 import com.willr27.blocklings.network.messages.BlocklingTypeMessage;
 import com.willr27.blocklings.util.*;
+import com.willr27.blocklings.world.AuraService;
+import com.willr27.blocklings.world.LoadedBlockReader;
+import com.willr27.blocklings.world.TreeRegistry;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -65,6 +70,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 
 import static com.willr27.blocklings.item.BlocklingsItems.BLOCKLING_WHISTLE;
 
@@ -175,6 +181,37 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
     @Nullable
     private BlockPos currentLightPos = null;
 
+    /**
+     * The block position of the centre of the blockling when its light source was last placed.
+     * The light source is only moved when the blockling moves into another block.
+     */
+    @Nullable
+    private BlockPos lightCentrePos = null;
+
+    /**
+     * Whether the blockling's light source block is only placed on clients (see {@link BlocklingsConfig.Common#clientSideLights}).
+     * Set by the server and synced to clients.
+     */
+    private boolean clientSideLight = false;
+
+    /**
+     * The position of a log in the last valid tree found near the blockling, null if there isn't one.
+     * Used by the log type's passive ability to avoid searching for a tree every time.
+     */
+    @Nullable
+    private BlockPos nearbyTreeLogPos = null;
+
+    /**
+     * The position the blockling was at when it last found no valid tree nearby, null if it has since found one.
+     */
+    @Nullable
+    private BlockPos noNearbyTreeBlockPos = null;
+
+    /**
+     * The game time the blockling last found no valid tree nearby.
+     */
+    private long noNearbyTreeTime = 0;
+
     /**
      * @param type the blockling entity type.
      * @param world the world the blockling is in.
@@ -334,11 +371,13 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
         buf.writeInt(BlocklingType.TYPES.indexOf(blocklingType));
         buf.writeInt(blocklingTypeVariant);
         buf.writeFloat(scale);
+        buf.writeBoolean(clientSideLight);
 
         equipmentInv.encode(buf);
         stats.encode(buf);
         tasks.encode(buf);
         skills.encode(buf);
+        actions.encode(buf);
     }
 
     @Override
@@ -348,11 +387,13 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
         blocklingType = BlocklingType.TYPES.get(buf.readInt());
         blocklingTypeVariant = buf.readInt();
         setScale(buf.readFloat(), false);
+        setClientSideLight(buf.readBoolean(), false);
 
         equipmentInv.decode(buf);
         stats.decode(buf);
         tasks.decode(buf);
         skills.decode(buf);
+        actions.decode(buf);
 
         equipmentInv.updateToolAttributes();
         stats.updateTypeBonuses(false);
@@ -405,78 +446,149 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
 
         if (naturalBlocklingType == BlocklingType.OAK_LOG || blocklingType == BlocklingType.OAK_LOG)
         {
-            for (int i = -radius; i <= radius; i++)
+            if (!isNearValidTree(Blocks.OAK_LOG, radius))
             {
-                for (int j = -radius; j <= radius; j++)
+                return;
+            }
+
+            // Heal themselves.
+            if (getHealth() < getMaxHealth())
+            {
+                if (level.isClientSide)
+                {
+                    level.addParticle(ParticleTypes.HEART, getX(), getY() + getEyeHeight() + 0.75f, getZ(), 0.0f, 0.0f, 0.0f);
+                }
+                else
                 {
-                    for (int k = -radius; k <= radius; k++)
+                    heal(healAmount);
+                }
+            }
+
+            // Heal the owner if they are in range.
+            if (getOwner() != null && getOwner().distanceToSqr(this) < radius * radius)
+            {
+                if (getOwner().getHealth() < getOwner().getMaxHealth())
+                {
+                    if (level.isClientSide)
+                    {
+                        level.addParticle(ParticleTypes.HEART, getOwner().getX(), getOwner().getY() +  getOwner().getEyeHeight() + 0.75f, getOwner().getZ(), 0.0f, 0.0f, 0.0f);
+                    }
+                    else
                     {
-                        BlockPos testPos = blockPosition().offset(i, j, k);
-                        Block testBlock = level.getBlockState(testPos).getBlock();
+                        getOwner().heal(healAmount);
+                    }
+                }
+            }
 
-                        if (testBlock == Blocks.OAK_LOG)
+            // Heal other blocklings in range with the same owner or no owner if this blockling is not tamed.
+            for (BlocklingEntity nearbyBlockling : level.getEntitiesOfClass(BlocklingEntity.class, AxisAlignedBB.ofSize(radius * 2, radius * 2, radius * 2).move(blockPosition())))
+            {
+                if (nearbyBlockling != this && (getOwnerUUID() == null || getOwnerUUID().equals(nearbyBlockling.getOwnerUUID())))
+                {
+                    if (nearbyBlockling.getHealth() < nearbyBlockling.getMaxHealth())
+                    {
+                        if (level.isClientSide)
+                        {
+                            level.addParticle(ParticleTypes.HEART, nearbyBlockling.getX(), nearbyBlockling.getY() + nearbyBlockling.getEyeHeight() + 0.75f, nearbyBlockling.getZ(), 0.0f, 0.0f, 0.0f);
+                        }
+                        else
                         {
-                            WorldUtil.Tree treeToTest = WorldUtil.findTreeFromPos(level, testPos, 40, (t) -> true, (t) -> true);
+                            nearbyBlockling.heal(healAmount);
+                        }
+                    }
+                }
+            }
+        }
+    }
 
-                            if (!treeToTest.isValid())
-                            {
-                                continue;
-                            }
+    /**
+     * Checks whether there is a valid tree made of the given log within the given radius of the blockling.
+     * On the server, the last tree found (or the last position no tree was found from) is cached, so the area is only searched again
+     * once the blockling moves or the world's tree registry sees a change nearby.
+     * Block changes are only tracked on the server, so on the client the area is searched each time without any caching.
+     *
+     * @param logBlock the log block the tree must be made of.
+     * @param radius the radius to search in.
+     * @return true if there is a valid tree nearby.
+     */
+    private boolean isNearValidTree(@Nonnull Block logBlock, int radius)
+    {
+        LoadedBlockReader blocks = new LoadedBlockReader(level);
+        BlockPos blockPos = blockPosition();
 
-                            // Heal themselves.
-                            if (getHealth() < getMaxHealth())
-                            {
-                                if (level.isClientSide)
-                                {
-                                    level.addParticle(ParticleTypes.HEART, getX(), getY() + getEyeHeight() + 0.75f, getZ(), 0.0f, 0.0f, 0.0f);
-                                }
-                                else
-                                {
-                                    heal(healAmount);
-                                }
-                            }
+        if (level.isClientSide)
+        {
+            return findValidTreeLog(blocks, logBlock, radius, logBlockPos -> WorldUtil.findTreeFromPos(blocks, logBlockPos, TreeRegistry.MAX_TREE_LOGS_SIZE, testPos -> true, testPos -> true).isValid()) != null;
+        }
 
-                            // Heal the owner if they are in range.
-                            if (getOwner() != null && getOwner().distanceToSqr(this) < radius * radius)
-                            {
-                                if (getOwner().getHealth() < getOwner().getMaxHealth())
-                                {
-                                    if (level.isClientSide)
-                                    {
-                                        level.addParticle(ParticleTypes.HEART, getOwner().getX(), getOwner().getY() +  getOwner().getEyeHeight() + 0.75f, getOwner().getZ(), 0.0f, 0.0f, 0.0f);
-                                    }
-                                    else
-                                    {
-                                        getOwner().heal(healAmount);
-                                    }
-                                }
-                            }
+        TreeRegistry trees = TreeRegistry.get(level);
 
-                            // Heal other blocklings in range with the same owner or no owner if this blockling is not tamed.
-                            for (BlocklingEntity nearbyBlockling : level.getEntitiesOfClass(BlocklingEntity.class, AxisAlignedBB.ofSize(radius * 2, radius * 2, radius * 2).move(blockPosition())))
-                            {
-                                if (nearbyBlockling != this && (getOwnerUUID() == null || getOwnerUUID().equals(nearbyBlockling.getOwnerUUID())))
-                                {
-                                    if (nearbyBlockling.getHealth() < nearbyBlockling.getMaxHealth())
-                                    {
-                                        if (level.isClientSide)
-                                        {
-                                            level.addParticle(ParticleTypes.HEART, nearbyBlockling.getX(), nearbyBlockling.getY() + nearbyBlockling.getEyeHeight() + 0.75f, nearbyBlockling.getZ(), 0.0f, 0.0f, 0.0f);
-                                        }
-                                        else
-                                        {
-                                            nearbyBlockling.heal(healAmount);
-                                        }
-                                    }
-                                }
-                            }
+        if (nearbyTreeLogPos != null)
+        {
+            if (Math.abs(nearbyTreeLogPos.getX() - blockPos.getX()) <= radius && Math.abs(nearbyTreeLogPos.getY() - blockPos.getY()) <= radius && Math.abs(nearbyTreeLogPos.getZ() - blockPos.getZ()) <= radius
+                    && blocks.getBlockState(nearbyTreeLogPos).getBlock() == logBlock && trees.isValidTree(nearbyTreeLogPos))
+            {
+                return true;
+            }
 
-                            return;
-                        }
+            nearbyTreeLogPos = null;
+        }
+
+        BlockPos minPos = blockPos.offset(-radius, -radius, -radius);
+        BlockPos maxPos = blockPos.offset(radius, radius, radius);
+
+        if (blockPos.equals(noNearbyTreeBlockPos) && !trees.hasChangedSince(minPos, maxPos, noNearbyTreeTime))
+        {
+            return false;
+        }
+
+        nearbyTreeLogPos = findValidTreeLog(blocks, logBlock, radius, trees::isValidTree);
+
+        if (nearbyTreeLogPos != null)
+        {
+            noNearbyTreeBlockPos = null;
+
+            return true;
+        }
+
+        noNearbyTreeBlockPos = blockPos;
+        noNearbyTreeTime = level.getGameTime();
+
+        return false;
+    }
+
+    /**
+     * Searches the area within the given radius of the blockling for a log that is part of a valid tree.
+     *
+     * @param blocks the reader to read blocks with.
+     * @param logBlock the log block the tree must be made of.
+     * @param radius the radius to search in.
+     * @param isValidTree checks whether a log is part of a valid tree.
+     * @return the position of the first log found that is part of a valid tree, or null if there are none.
+     */
+    @Nullable
+    private BlockPos findValidTreeLog(@Nonnull LoadedBlockReader blocks, @Nonnull Block logBlock, int radius, @Nonnull Predicate<BlockPos> isValidTree)
+    {
+        BlockPos blockPos = blockPosition();
+        BlockPos.Mutable testPos = new BlockPos.Mutable();
+
+        for (int i = -radius; i <= radius; i++)
+        {
+            for (int j = -radius; j <= radius; j++)
+            {
+                for (int k = -radius; k <= radius; k++)
+                {
+                    testPos.setWithOffset(blockPos, i, j, k);
+
+                    if (blocks.getBlockState(testPos).getBlock() == logBlock && isValidTree.test(testPos))
+                    {
+                        return testPos.immutable();
                     }
                 }
             }
         }
+
+        return null;
     }
 
     /**
@@ -514,118 +626,112 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
                }
            }
 
+            // The effects are applied by the aura service, which batches them across all the blocklings in the world.
+            AuraService auras = AuraService.get(level);
+
             if (naturalBlocklingType == BlocklingType.STONE || blocklingType == BlocklingType.STONE)
             {
-                LivingEntity owner = getOwner();
-                final float range = 8.0f;
-                final int level = 1;
-
-                addEffect(new EffectInstance(Effects.DAMAGE_RESISTANCE, 100, level - 1, false, false, true));
-
-                if (owner != null && owner.distanceToSqr(this) < range * range)
-                {
-                    owner.addEffect(new EffectInstance(Effects.DAMAGE_RESISTANCE, 419, level - 1, false, false, true));
-                }
-
-                for (BlocklingEntity nearbyBlockling : this.level.getEntitiesOfClass(BlocklingEntity.class, AxisAlignedBB.ofSize(range * 2, range * 2, range * 2).move(blockPosition())))
-                {
-                    if (getOwnerUUID() == null || getOwnerUUID().equals(nearbyBlockling.getOwnerUUID()))
-                    {
-                        nearbyBlockling.addEffect(new EffectInstance(Effects.DAMAGE_RESISTANCE, 100, level - 1, false, false, true));
-                    }
-                }
+                auras.addSource(this, Effects.DAMAGE_RESISTANCE, true);
             }
 
             if (naturalBlocklingType == BlocklingType.IRON || blocklingType == BlocklingType.IRON)
             {
-                LivingEntity owner = getOwner();
-                final float range = 8.0f;
-                final int level = 1;
-
-                addEffect(new EffectInstance(Effects.DAMAGE_BOOST, 100, level - 1, false, false, true));
-
-                if (owner != null && owner.distanceToSqr(this) < range * range)
-                {
-                    owner.addEffect(new EffectInstance(Effects.DAMAGE_BOOST, 419, level - 1, false, false, true));
-                }
-
-                for (BlocklingEntity nearbyBlockling : this.level.getEntitiesOfClass(BlocklingEntity.class, AxisAlignedBB.ofSize(range * 2, range * 2, range * 2).move(blockPosition())))
-                {
-                    if (getOwnerUUID() == null || getOwnerUUID().equals(nearbyBlockling.getOwnerUUID()))
-                    {
-                        nearbyBlockling.addEffect(new EffectInstance(Effects.DAMAGE_BOOST, 100, level - 1, false, false, true));
-                    }
-                }
+                auras.addSource(this, Effects.DAMAGE_BOOST, true);
             }
 
             if (naturalBlocklingType == BlocklingType.GOLD || blocklingType == BlocklingType.GOLD)
             {
-                LivingEntity owner = getOwner();
-                final float range = 8.0f;
-                final int level = 1;
-
-                addEffect(new EffectInstance(Effects.MOVEMENT_SPEED, 100, level - 1, false, false, true));
-
-                if (owner != null && owner.distanceToSqr(this) < range * range)
-                {
-                    owner.addEffect(new EffectInstance(Effects.MOVEMENT_SPEED, 419, level - 1, false, false, true));
-                }
-
-                for (BlocklingEntity nearbyBlockling : this.level.getEntitiesOfClass(BlocklingEntity.class, AxisAlignedBB.ofSize(range * 2, range * 2, range * 2).move(blockPosition())))
-                {
-                    if (getOwnerUUID() == null || getOwnerUUID().equals(nearbyBlockling.getOwnerUUID()))
-                    {
-                        nearbyBlockling.addEffect(new EffectInstance(Effects.MOVEMENT_SPEED, 100, level - 1, false, false, true));
-                    }
-                }
+                auras.addSource(this, Effects.MOVEMENT_SPEED, true);
             }
 
            if (naturalBlocklingType == BlocklingType.EMERALD || blocklingType == BlocklingType.EMERALD)
            {
-               LivingEntity owner = getOwner();
-               final float range = 8.0f;
-               final int level = 1;
-
-               if (owner != null && owner.distanceToSqr(this) < range * range)
-               {
-                    owner.addEffect(new EffectInstance(Effects.LUCK, 419, level - 1, false, false, true));
-               }
+               auras.addSource(this, Effects.LUCK, false);
            }
         }
     }
 
     /**
      * Updates the position of the blockling's light source.
+     * The light source is only moved when the blockling moves into another block (or the light source block is replaced),
+     * and is placed without notifying neighbours, so a blockling standing still never causes any block or light updates.
+     * The light source is placed on the server, or only on each client if client side lights are enabled.
      *
      * @param removeOnly whether to only remove the light source and not replace it.
      */
     public void updateLightPos(boolean removeOnly)
     {
-        if (!level.isClientSide)
+        if (!removeOnly && !level.isClientSide && clientSideLight != BlocklingsConfig.COMMON.clientSideLights.get())
+        {
+            setClientSideLight(BlocklingsConfig.COMMON.clientSideLights.get());
+        }
+
+        if (removeOnly || level.isClientSide != clientSideLight || (naturalBlocklingType != BlocklingType.GLOWSTONE && blocklingType != BlocklingType.GLOWSTONE))
         {
-            if (currentLightPos != null)
+            removeLight();
+
+            return;
+        }
+
+        BlockPos centrePos = new BlockPos(position().add(0.0, 0.5 * getScale(), 0.0));
+
+        if (centrePos.equals(lightCentrePos) && isLight(currentLightPos))
+        {
+            return;
+        }
+
+        for (BlockPos testPos : Arrays.asList(centrePos, centrePos.above(), centrePos.below(), centrePos.north(), centrePos.south(), centrePos.east(), centrePos.west()))
+        {
+            if (testPos.equals(currentLightPos) && isLight(testPos))
             {
-                level.removeBlock(currentLightPos, false);
+                lightCentrePos = centrePos;
+
+                return;
             }
 
-            if (!removeOnly && (naturalBlocklingType == BlocklingType.GLOWSTONE || blocklingType == BlocklingType.GLOWSTONE))
+            BlockState blockState = level.getBlockState(testPos);
+
+            if (blockState.getBlock().isAir(blockState, level, testPos) || (currentLightPos == null && blockState.getBlock() == BlocklingsBlocks.LIGHT.get()))
             {
-                BlockPos blockPos = new BlockPos(position().add(0.0, 0.5 * getScale(), 0.0));
+                // Place the new light before removing the old one so the light engine never sees the area go dark.
+                level.setBlock(testPos, BlocklingsBlocks.LIGHT.get().defaultBlockState(), Constants.BlockFlags.BLOCK_UPDATE);
 
-                for (BlockPos testPos : Arrays.asList(blockPos, blockPos.above(), blockPos.below(), blockPos.north(), blockPos.south(), blockPos.east(), blockPos.west()))
+                if (!testPos.equals(currentLightPos))
                 {
-                    BlockState blockState = level.getBlockState(blockPos = testPos);
-                    Block block = blockState.getBlock();
+                    removeLight();
+                }
 
-                    if (block.getBlock().isAir(blockState, level, blockPos) || (currentLightPos == null && block == BlocklingsBlocks.LIGHT.get()))
-                    {
-                        level.setBlock(currentLightPos = blockPos, BlocklingsBlocks.LIGHT.get().defaultBlockState(), Constants.BlockFlags.DEFAULT);
+                currentLightPos = testPos;
+                lightCentrePos = centrePos;
 
-                        break;
-                    }
-                }
+                return;
             }
         }
+
+        removeLight();
+    }
+
+    /**
+     * Removes the blockling's light source block, if it is still there.
+     */
+    private void removeLight()
+    {
+        if (isLight(currentLightPos))
+        {
+            level.setBlock(currentLightPos, Blocks.AIR.defaultBlockState(), Constants.BlockFlags.BLOCK_UPDATE);
+        }
+
+        currentLightPos = null;
+        lightCentrePos = null;
+    }
+
+    /**
+     * @param blockPos the block position.
+     * @return true if there is a light source block at the given position.
+     */
+    private boolean isLight(@Nullable BlockPos blockPos)
+    {
+        return blockPos != null && level.getBlockState(blockPos).getBlock() == BlocklingsBlocks.LIGHT.get();
     }
 
     /**
@@ -638,15 +744,15 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
 
         if (actions.regenerationCooldown.isFinished())
         {
-            if (skills.getSkill(CombatSkills.REGENERATION_3).isBought())
+            if (skills.isBought(CombatSkills.REGENERATION_3))
             {
                 heal(5.0f);
             }
-            else if (skills.getSkill(CombatSkills.REGENERATION_2).isBought())
+            else if (skills.isBought(CombatSkills.REGENERATION_2))
             {
                 heal(3.0f);
             }
-            else if (skills.getSkill(CombatSkills.REGENERATION_1).isBought())
+            else if (skills.isBought(CombatSkills.REGENERATION_1))
             {
                 heal(1.0f);
             }
@@ -751,11 +857,11 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
         {
             LivingEntity livingTarget = (LivingEntity) target;
 
-            if (skills.getSkill(CombatSkills.POISON_ATTACKS).isBought())
+            if (skills.isBought(CombatSkills.POISON_ATTACKS))
             {
                 livingTarget.addEffect(new EffectInstance(Effects.POISON, 100));
             }
-            else if (skills.getSkill(CombatSkills.WITHER_ATTACKS).isBought())
+            else if (skills.isBought(CombatSkills.WITHER_ATTACKS))
             {
                 livingTarget.addEffect(new EffectInstance(Effects.WITHER, 60));
             }
@@ -821,7 +927,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
     {
         Item item = stack.getItem();
 
-        int damage = getSkills().getSkill(CombatSkills.WRECKLESS).isBought() ? 2 : 1;
+        int damage = getSkills().isBought(CombatSkills.WRECKLESS) ? 2 : 1;
 
         if (ToolUtil.isTinkersTool(item))
         {
@@ -902,7 +1008,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
 
         if (!level.isClientSide)
         {
-            if (skills.getSkill(GeneralSkills.ARMADILLO).isBought())
+            if (skills.isBought(GeneralSkills.ARMADILLO))
             {
                 if (isDeadOrDying())
                 {
@@ -981,7 +1087,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
                 }
                 else
                 {
-                    if (hasPlayerResetCrouchBetweenInteractions && skills.getSkill(GeneralSkills.PACKLING).isBought())
+                    if (hasPlayerResetCrouchBetweenInteractions && skills.isBought(GeneralSkills.PACKLING))
                     {
                         if (player == getOwner())
                         {
@@ -1008,7 +1114,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
                         }
                     }
 
-                    if (hasPlayerResetCrouchBetweenInteractions && skills.getSkill(GeneralSkills.HEAL).isBought())
+                    if (hasPlayerResetCrouchBetweenInteractions && skills.isBought(GeneralSkills.HEAL))
                     {
                         if (getHealth() < getMaxHealth())
                         {
@@ -1149,7 +1255,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
     @Override
     protected void dropAllDeathLoot(@Nonnull DamageSource damageSource)
     {
-        if (!skills.getSkill(GeneralSkills.ARMADILLO).isBought())
+        if (!skills.isBought(GeneralSkills.ARMADILLO))
         {
             super.dropAllDeathLoot(damageSource);
         }
@@ -1554,6 +1660,42 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
         }
     }
 
+    /**
+     * @return whether the blockling's light source block is only placed on clients.
+     */
+    public boolean isClientSideLight()
+    {
+        return clientSideLight;
+    }
+
+    /**
+     * Sets whether the blockling's light source block is only placed on clients.
+     * Syncs to the client/server.
+     *
+     * @param clientSideLight whether the light source block is only placed on clients.
+     */
+    public void setClientSideLight(boolean clientSideLight)
+    {
+        setClientSideLight(clientSideLight, true);
+    }
+
+    /**
+     * Sets whether the blockling's light source block is only placed on clients.
+     * Syncs to the client/server if sync is true.
+     *
+     * @param clientSideLight whether the light source block is only placed on clients.
+     * @param sync whether to sync to the client/server.
+     */
+    public void setClientSideLight(boolean clientSideLight, boolean sync)
+    {
+        this.clientSideLight = clientSideLight;
+
+        if (sync)
+        {
+            new BlocklingClientSideLightMessage(this, clientSideLight).sync();
+        }
+    }
+
     /**
      * Increments the count of attacks recently and resets the cooldown.
      */
@@ -1562,7 +1704,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
         attacksRecently++;
         actions.attacksCooldown.start();
 
-        if (skills.getSkill(CombatSkills.MOMENTUM).isBought())
+        if (skills.isBought(CombatSkills.MOMENTUM))
         {
             int cappedCount = Math.min(attacksRecently, 20);
             stats.attackSpeedSkillMomentumModifier.setValue((float) cappedCount / 2.0f);
@@ -1577,7 +1719,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
         oresMinedRecently++;
         actions.oresMinedCooldown.start();
 
-        if (skills.getSkill(MiningSkills.MOMENTUM).isBought())
+        if (skills.isBought(MiningSkills.MOMENTUM))
         {
             int cappedCount = Math.min(oresMinedRecently, 20);
             stats.miningSpeedSkillMomentumModifier.setValue((float) cappedCount);
@@ -1592,7 +1734,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
         logsChoppedRecently++;
         actions.logsChoppedCooldown.start();
 
-        if (skills.getSkill(WoodcuttingSkills.MOMENTUM).isBought())
+        if (skills.isBought(WoodcuttingSkills.MOMENTUM))
         {
             int cappedCount = Math.min(logsChoppedRecently, 20);
             stats.woodcuttingSpeedSkillMomentumModifier.setValue((float) cappedCount);
@@ -1607,7 +1749,7 @@ public class BlocklingEntity extends TameableEntity implements IEntityAdditional
         cropsHarvestedRecently++;
         actions.cropsHarvestedCooldown.start();
 
-        if (skills.getSkill(FarmingSkills.MOMENTUM).isBought())
+        if (skills.isBought(FarmingSkills.MOMENTUM))
         {
             int cappedCount = Math.min(cropsHarvestedRecently, 20);
             stats.farmingSpeedSkillMomentumModifier.setValue((float) cappedCount);
@@ -34,6 +34,12 @@ public abstract class Action
      */
     protected float count;
 
+    /**
+     * Whether the action is ticked automatically each tick (see {@link BlocklingActions}).
+     * Auto ticked actions only sync when they are started, stopped or set directly, as clients step them locally in between.
+     */
+    boolean isAutoTicked = false;
+
     /**
      * The list of callbacks to call when an action finishes.
      */
@@ -112,7 +118,19 @@ public abstract class Action
     {
         if (isRunning())
         {
-            setCount(count + increment);
+            setCount(count + increment, !isAutoTicked && shouldSync());
+        }
+    }
+
+    /**
+     * Increments the count by 1.0f without syncing or finishing the action.
+     * Used by clients to step auto ticked actions between the messages sent when they start and stop.
+     */
+    public void simulateTick()
+    {
+        if (isRunning())
+        {
+            count += 1.0f;
         }
     }
 
@@ -150,7 +168,7 @@ public abstract class Action
      */
     public void setCount(float count)
     {
-        setCount(count, isCorrectSide() && authority != Authority.NONE);
+        setCount(count, shouldSync());
     }
 
     /**
@@ -178,6 +196,15 @@ public abstract class Action
         return getCount() / (float) targetCount;
     }
 
+    /**
+     * @return true if changes to the count should be synced to the client/server.
+     * Clients never sync auto ticked actions as the server runs them and syncs any changes itself.
+     */
+    private boolean shouldSync()
+    {
+        return isCorrectSide() && authority != Authority.NONE && !(isAutoTicked && blockling.level.isClientSide);
+    }
+
     /**
      * @return true if the authority matches the side.
      */
@@ -4,6 +4,7 @@ import com.willr27.blocklings.entity.blockling.BlocklingEntity;
 import com.willr27.blocklings.entity.blockling.action.actions.AttackAction;
 import com.willr27.blocklings.entity.blockling.action.actions.KnownTargetAction;
 import com.willr27.blocklings.entity.blockling.action.actions.UnknownTargetAction;
+import net.minecraft.network.PacketBuffer;
 import org.jline.utils.Log;
 
 import javax.annotation.Nonnull;
@@ -131,6 +132,7 @@ public class BlocklingActions
         if (autoTick)
         {
             actionsToAutoTick.add(action);
+            action.isAutoTicked = true;
         }
 
         return action;
@@ -153,6 +155,7 @@ public class BlocklingActions
         if (autoTick)
         {
             actionsToAutoTick.add(action);
+            action.isAutoTicked = true;
         }
 
         return action;
@@ -176,6 +179,7 @@ public class BlocklingActions
         if (autoTick)
         {
             actionsToAutoTick.add(action);
+            action.isAutoTicked = true;
         }
 
         return action;
@@ -197,6 +201,43 @@ public class BlocklingActions
     {
         // Auto tick the actions on their preferred side.
         // In the case of BOTH, only tick server side to prevent double ticking.
-        actionsToAutoTick.stream().filter(action -> action.isCorrectSide() && (action.authority != Action.Authority.BOTH || !blockling.level.isClientSide)).forEach(Action::tick);
+        // Clients step the rest locally, as the server only syncs them when they start or stop.
+        for (Action action : actionsToAutoTick)
+        {
+            if (action.isCorrectSide() && (action.authority != Action.Authority.BOTH || !blockling.level.isClientSide))
+            {
+                action.tick();
+            }
+            else if (blockling.level.isClientSide)
+            {
+                action.simulateTick();
+            }
+        }
+    }
+
+    /**
+     * Encodes the count of each action, so clients that start tracking the blockling mid action are in step with the server.
+     *
+     * @param buf the buffer to encode to.
+     */
+    public void encode(@Nonnull PacketBuffer buf)
+    {
+        for (Action action : actions)
+        {
+            buf.writeFloat(action.getCount());
+        }
+    }
+
+    /**
+     * Decodes the count of each action.
+     *
+     * @param buf the buffer to decode from.
+     */
+    public void decode(@Nonnull PacketBuffer buf)
+    {
+        for (Action action : actions)
+        {
+            action.setCount(buf.readFloat(), false);
+        }
     }
 }
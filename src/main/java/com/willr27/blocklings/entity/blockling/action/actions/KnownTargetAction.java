@@ -78,6 +78,18 @@ public class KnownTargetAction extends Action
         }
     }
 
+    @Override
+    public void simulateTick()
+    {
+        super.simulateTick();
+
+        // Stop straight away rather than waiting for the server, but leave finishing the action to the server.
+        if (isRunning() && getCount() > targetCountSupplier.get())
+        {
+            setCount(-1.0f, false);
+        }
+    }
+
     /**
      * @return true if the action has finished and hasn't ticked since finishing.
      */
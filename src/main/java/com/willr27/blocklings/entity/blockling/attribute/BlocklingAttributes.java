@@ -339,11 +339,11 @@ public class BlocklingAttributes implements IReadWriteNBT
     @Nonnull
     private String speedSkillDisplayNameProvider()
     {
-        if (blockling.getSkills().getSkill(GeneralSkills.SPEED_3).isBought())
+        if (blockling.getSkills().isBought(GeneralSkills.SPEED_3))
         {
             return skillDisplayNameProvider(GeneralSkills.SPEED_3);
         }
-        else if (blockling.getSkills().getSkill(GeneralSkills.SPEED_2).isBought())
+        else if (blockling.getSkills().isBought(GeneralSkills.SPEED_2))
         {
             return skillDisplayNameProvider(GeneralSkills.SPEED_2);
         }
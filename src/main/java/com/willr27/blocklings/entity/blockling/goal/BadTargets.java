@@ -0,0 +1,284 @@
+package com.willr27.blocklings.entity.blockling.goal;
+
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded set of targets to ignore for a while, e.g. because a blockling got stuck trying to reach them.
+ * Each target expires after its own cooldown, tracked by a timer wheel that is advanced lazily as the set is used,
+ * so expiring targets never means checking every target.
+ * Targets can also be given a fingerprint of their surroundings (e.g. a hash of the blocks around a position),
+ * in which case a target stops being bad as soon as its fingerprint changes.
+ *
+ * @param <T> the type of the target.
+ */
+public class BadTargets<T> implements Iterable<T>
+{
+    /**
+     * The number of slots in the timer wheel, one per tick.
+     * Must be a power of two.
+     */
+    private static final int WHEEL_SIZE = 256;
+
+    /**
+     * The max number of targets, once reached the target closest to expiring is removed to make room.
+     */
+    private static final int MAX_TARGETS = 1024;
+
+    /**
+     * The world, used to get the game time.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * Creates the fingerprint for a target, or null if targets have no fingerprint.
+     */
+    @Nullable
+    private final ToLongFunction<T> fingerprinter;
+
+    /**
+     * The entry for each target.
+     */
+    @Nonnull
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+
+    /**
+     * The entries in each slot of the timer wheel, placed by the game time they expire at.
+     */
+    @Nonnull
+    private final List<List<Entry<T>>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+    /**
+     * The game time the wheel has been advanced to.
+     */
+    private long wheelTime;
+
+    /**
+     * @param world the world, used to get the game time.
+     * @param fingerprinter creates the fingerprint for a target, or null if targets have no fingerprint.
+     */
+    public BadTargets(@Nonnull World world, @Nullable ToLongFunction<T> fingerprinter)
+    {
+        this.world = world;
+        this.fingerprinter = fingerprinter;
+        this.wheelTime = world.getGameTime();
+
+        for (int i = 0; i < WHEEL_SIZE; i++)
+        {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds the given target, or resets its cooldown and fingerprint if it is already bad.
+     *
+     * @param target the target to add.
+     * @param cooldown the number of ticks the target is bad for.
+     */
+    public void add(@Nonnull T target, int cooldown)
+    {
+        advance();
+
+        Entry<T> previousEntry = entries.get(target);
+
+        if (previousEntry != null)
+        {
+            remove(previousEntry);
+        }
+        else if (entries.size() >= MAX_TARGETS)
+        {
+            removeClosestToExpiring();
+        }
+
+        Entry<T> entry = new Entry<>(target, wheelTime + Math.max(cooldown, 1), fingerprinter != null ? fingerprinter.applyAsLong(target) : 0L);
+        entries.put(target, entry);
+        getSlot(entry.expiryTime).add(entry);
+    }
+
+    /**
+     * Checks whether the given target is bad, removing it if its fingerprint has changed.
+     *
+     * @param target the target to check.
+     * @return true if the target is bad.
+     */
+    public boolean contains(@Nullable T target)
+    {
+        advance();
+
+        Entry<T> entry = entries.get(target);
+
+        if (entry == null)
+        {
+            return false;
+        }
+
+        if (fingerprinter != null && fingerprinter.applyAsLong(entry.target) != entry.fingerprint)
+        {
+            remove(entry);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the number of bad targets (including any whose fingerprint has changed but have not been checked since).
+     */
+    public int size()
+    {
+        advance();
+
+        return entries.size();
+    }
+
+    /**
+     * Removes all the targets.
+     */
+    public void clear()
+    {
+        entries.clear();
+        wheel.forEach(List::clear);
+    }
+
+    /**
+     * Iterates the bad targets without checking their fingerprints.
+     */
+    @Override
+    @Nonnull
+    public Iterator<T> iterator()
+    {
+        advance();
+
+        return Collections.unmodifiableSet(entries.keySet()).iterator();
+    }
+
+    /**
+     * Advances the timer wheel to the current game time, removing any targets that have expired.
+     * Only the slots passed since the wheel was last advanced are visited.
+     */
+    private void advance()
+    {
+        long gameTime = world.getGameTime();
+
+        if (entries.isEmpty())
+        {
+            wheelTime = gameTime;
+
+            return;
+        }
+
+        long steps = Math.min(gameTime - wheelTime, WHEEL_SIZE);
+
+        for (long time = gameTime - steps + 1; time <= gameTime; time++)
+        {
+            // Entries with cooldowns longer than the wheel stay in their slot until a later lap.
+            getSlot(time).removeIf(entry ->
+            {
+                if (entry.expiryTime <= gameTime)
+                {
+                    entries.remove(entry.target, entry);
+
+                    return true;
+                }
+
+                return false;
+            });
+        }
+
+        wheelTime = gameTime;
+    }
+
+    /**
+     * Removes the target closest to expiring (or one of them if several expire at the same time).
+     * The slots are walked in expiry order, so the first entry found that expires on this lap of the wheel is the closest.
+     * If every entry expires on a later lap, each one is compared instead.
+     */
+    private void removeClosestToExpiring()
+    {
+        Entry<T> closestEntry = null;
+
+        for (long time = wheelTime + 1; time <= wheelTime + WHEEL_SIZE; time++)
+        {
+            for (Entry<T> entry : getSlot(time))
+            {
+                if (entry.expiryTime == time)
+                {
+                    remove(entry);
+
+                    return;
+                }
+
+                if (closestEntry == null || entry.expiryTime < closestEntry.expiryTime)
+                {
+                    closestEntry = entry;
+                }
+            }
+        }
+
+        if (closestEntry != null)
+        {
+            remove(closestEntry);
+        }
+    }
+
+    /**
+     * @param entry the entry to remove.
+     */
+    private void remove(@Nonnull Entry<T> entry)
+    {
+        entries.remove(entry.target, entry);
+        getSlot(entry.expiryTime).remove(entry);
+    }
+
+    /**
+     * @param time the game time.
+     * @return the slot of the timer wheel the given game time falls in.
+     */
+    @Nonnull
+    private List<Entry<T>> getSlot(long time)
+    {
+        return wheel.get((int) (time & (WHEEL_SIZE - 1)));
+    }
+
+    /**
+     * A bad target.
+     *
+     * @param <T> the type of the target.
+     */
+    private static class Entry<T>
+    {
+        /**
+         * The target.
+         */
+        @Nonnull
+        final T target;
+
+        /**
+         * The game time the target stops being bad.
+         */
+        final long expiryTime;
+
+        /**
+         * The fingerprint of the target when it was added.
+         */
+        final long fingerprint;
+
+        /**
+         * @param target the target.
+         * @param expiryTime the game time the target stops being bad.
+         * @param fingerprint the fingerprint of the target when it was added.
+         */
+        Entry(@Nonnull T target, long expiryTime, long fingerprint)
+        {
+            this.target = target;
+            this.expiryTime = expiryTime;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
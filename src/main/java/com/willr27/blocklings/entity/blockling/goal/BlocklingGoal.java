@@ -1,5 +1,6 @@
 package com.willr27.blocklings.entity.blockling.goal;
 
+import com.willr27.blocklings.debug.BlocklingDebugInfo;
 import com.willr27.blocklings.entity.blockling.BlocklingEntity;
 import com.willr27.blocklings.entity.blockling.task.BlocklingTasks;
 import com.willr27.blocklings.entity.blockling.task.Task;
@@ -156,6 +157,17 @@ public abstract class BlocklingGoal extends Goal
         return BlockUtil.distanceSq(blockling.blockPosition(), blockPos) <= rangeSq;
     }
 
+    /**
+     * Adds anything the goal is currently doing to the given debug info.
+     * Only called on the server while an operator is subscribed to the blockling.
+     *
+     * @param info the debug info to add to.
+     */
+    public void collectDebugInfo(@Nonnull BlocklingDebugInfo info)
+    {
+
+    }
+
     /**
      * @return the associated task.
      */
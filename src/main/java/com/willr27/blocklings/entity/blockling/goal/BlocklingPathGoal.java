@@ -1,15 +1,28 @@
 package com.willr27.blocklings.entity.blockling.goal;
 
+import com.willr27.blocklings.Blocklings;
+import com.willr27.blocklings.config.BlocklingsConfig;
+import com.willr27.blocklings.debug.BlocklingDebugInfo;
 import com.willr27.blocklings.entity.blockling.BlocklingEntity;
 import com.willr27.blocklings.entity.blockling.task.BlocklingTasks;
 import com.willr27.blocklings.util.BlockUtil;
 import com.willr27.blocklings.util.EntityUtil;
+import com.willr27.blocklings.world.LoadedBlockReader;
+import com.willr27.blocklings.world.PathRecalcCoordinator;
 import net.minecraft.pathfinding.Path;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.pathfinding.WalkNodeProcessor;
 import net.minecraft.util.math.BlockPos;
+import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * A goal that has less than trivial pathing needs.
@@ -22,16 +35,34 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
      */
     private static final int RECALC_INTERVAL = 10;
 
+    /**
+     * The max distance from the blockling a block can be for the current path to be repaired to reach it rather than searched for again.
+     */
+    private static final int MAX_REPAIR_DISTANCE = 4;
+
+    /**
+     * The number of upcoming nodes of a path found on a worker thread that are checked against the world before the path is used.
+     */
+    private static final int NODES_TO_VALIDATE = 4;
+
     /**
      * The number of ticks a bad path target needs elapse before it is removed.
      */
     private static final int BAD_PATH_TARGET_COOLDOWN_INTERVAL = 10 * 20;
 
     /**
-     * The map of block positions to ignore as they led to the blockling getting stuck to their cooldowns.
+     * Used to read blocks when searching and testing targets, so searches never load chunks.
+     * Positions in unloaded chunks read as void air, which is never a valid target.
+     */
+    @Nonnull
+    protected final LoadedBlockReader loadedBlocks = new LoadedBlockReader(world);
+
+    /**
+     * The block positions to ignore as they led to the blockling getting stuck.
+     * A position stops being bad once its cooldown expires or any block around it changes.
      */
     @Nonnull
-    protected final Map<BlockChunk, Integer> badPathTargetChunks = new HashMap<>();
+    protected final BadTargets<BlockPos> badPathTargets = new BadTargets<>(world, blockPos -> BlockUtil.hashSurroundingBlocks(loadedBlocks, blockPos));
 
     /**
      * The current pos to path to.
@@ -53,10 +84,21 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
     private float prevMoveDist = 0.0f;
 
     /**
-     * Counts the number of ticks since the last recalc.
-     * Used to determine when we want to recalculate the current path.
+     * The tick within the recalc interval this goal recalculates its path on.
+     * Assigned by the world's recalc coordinator so blocklings don't all recalc on the same tick.
      */
-    private int recalcCounter = 0;
+    private int recalcPhase = 0;
+
+    /**
+     * Whether a recalc is due but was deferred as too many recalcs had already run this tick.
+     */
+    private boolean isRecalcDue = false;
+
+    /**
+     * The path being found on a worker thread to try to improve the current path, null if there isn't one.
+     */
+    @Nullable
+    private CompletableFuture<Pair<BlockPos, Path>> pendingPath = null;
 
     /**
      * @param id the id associated with the goal's task.
@@ -70,37 +112,14 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
         getFlags().add(Flag.MOVE);
     }
 
-    @Override
-    public boolean canUse()
-    {
-        if (!super.canUse())
-        {
-            return false;
-        }
-
-        updateBadPathTargetPositions();
-
-        return true;
-    }
-
-    @Override
-    public boolean canContinueToUse()
-    {
-        if (!super.canContinueToUse())
-        {
-            return false;
-        }
-
-        updateBadPathTargetPositions();
-
-        return true;
-    }
-
     @Override
     public void start()
     {
         super.start();
 
+        recalcPhase = PathRecalcCoordinator.get(world).assignPhase(RECALC_INTERVAL);
+        isRecalcDue = false;
+
         moveBlocklingToPath();
     }
 
@@ -111,6 +130,9 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
 
         setPathTargetPos(null, null);
 
+        PathRecalcCoordinator.get(world).cancelRecalc(this);
+        isRecalcDue = false;
+        pendingPath = null;
         prevMoveDist = 0.0f;
     }
 
@@ -119,15 +141,21 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
     {
         super.tick();
 
+        acceptPendingPath();
+
         boolean shouldRecalc = tickRecalc();
 
-        if (shouldRecalc)
+        if (shouldRecalc && !tryRecalcPathOffThread())
         {
             recalcPath(false);
         }
 
         if (isStuck() || (isInRangeOfPathTargetPos() && !isValidPathTargetPos(getPathTargetPos())))
         {
+            // The forced recalc replaces any path still being found.
+            pendingPath = null;
+
+            PathRecalcCoordinator.get(world).tryStartRecalc(this, true);
             recalcPath(true);
         }
 
@@ -152,47 +180,226 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
     protected abstract void tickGoal();
 
     /**
-     * Increments the recalc counter and checks if it has reached the recalc interval.
+     * Checks whether this goal should recalculate its path this tick.
+     * A recalc is due once every recalc interval on the goal's phase, and is queued for the following ticks if too many recalcs have already run this tick.
      *
-     * @return true if recalc counter has reached the recalc interval.
+     * @return true if the path should be recalculated this tick.
      */
     private boolean tickRecalc()
     {
-        recalcCounter++;
+        PathRecalcCoordinator coordinator = PathRecalcCoordinator.get(world);
+
+        if (coordinator.isRecalcTick(recalcPhase, RECALC_INTERVAL))
+        {
+            isRecalcDue = true;
+        }
 
-        if (recalcCounter < RECALC_INTERVAL)
+        if (isRecalcDue && coordinator.tryStartRecalc(this, false))
+        {
+            isRecalcDue = false;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Starts looking for a better path on a worker thread, keeping the current path until the search finishes.
+     * Only used when the goal already has a path, as otherwise the goal needs a path straight away.
+     *
+     * @return true if a search is running, false if the path should be recalculated on the server thread instead.
+     */
+    private boolean tryRecalcPathOffThread()
+    {
+        if (pendingPath != null)
+        {
+            return true;
+        }
+
+        if (!BlocklingsConfig.COMMON.offThreadPaths.get() || !hasPath())
         {
             return false;
         }
-        else
+
+        Collection<BlockPos> pathTargetPositions = findPathTargetPositions();
+
+        if (pathTargetPositions == null)
         {
-            recalcCounter = 0;
+            return false;
         }
 
+        pendingPath = EntityUtil.createPathToAnyAsync(blockling, pathTargetPositions, getRangeSq());
+
         return true;
     }
 
     /**
-     * Updates the cooldowns for the bad path target positions.
-     * Removes them from the map if their cooldown has expired, or they have changed.
+     * Switches to the path found on a worker thread if the search has finished and the path is better than the current one.
      */
-    private void updateBadPathTargetPositions()
+    private void acceptPendingPath()
     {
-        Set<BlockChunk> blockChunksToRemove = new HashSet<>();
+        if (pendingPath == null || !pendingPath.isDone())
+        {
+            return;
+        }
 
-        badPathTargetChunks.forEach((blockChunk, cooldown) ->
+        CompletableFuture<Pair<BlockPos, Path>> search = pendingPath;
+        pendingPath = null;
+
+        Pair<BlockPos, Path> result;
+
+        try
         {
-            cooldown--;
+            result = search.join();
+        }
+        catch (CompletionException e)
+        {
+            Blocklings.LOGGER.warn("An off thread blockling path search failed.", e.getCause());
 
-            if (cooldown <= 0 || blockChunk.hasChanged())
+            return;
+        }
+
+        // The target may have changed while the search was running, so test it again.
+        if (result == null || !isValidPathTargetPos(result.getKey()) || isBadPathTargetPos(result.getKey()))
+        {
+            return;
+        }
+
+        // The search read a snapshot, so make sure the blocks the blockling is about to walk through haven't changed since.
+        if (!areNextNodesWalkable(result.getValue()))
+        {
+            return;
+        }
+
+        if (!hasPath() || result.getValue().getDistToTarget() < path.getDistToTarget())
+        {
+            setPathTargetPos(result.getKey(), result.getValue());
+        }
+    }
+
+    /**
+     * Checks the next few nodes of the given path against the world, using the same node types and malus values as the blockling's navigator.
+     *
+     * @param path the path.
+     * @return true if none of the next few nodes are somewhere the blockling can't path through.
+     */
+    private boolean areNextNodesWalkable(@Nonnull Path path)
+    {
+        BlockPos.Mutable nodePos = new BlockPos.Mutable();
+        int endIndex = Math.min(path.getNextNodeIndex() + NODES_TO_VALIDATE, path.getNodeCount());
+
+        for (int i = path.getNextNodeIndex(); i < endIndex; i++)
+        {
+            PathPoint node = path.getNode(i);
+            nodePos.set(node.x, node.y, node.z);
+
+            if (blockling.getPathfindingMalus(WalkNodeProcessor.getBlockPathTypeStatic(loadedBlocks, nodePos)) < 0.0f)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Used to find paths on a worker thread (see {@link BlocklingsConfig.Common#offThreadPaths}).
+     *
+     * @return the positions of the blocks the goal could path to, or null if there are none or the goal only finds paths on the server thread.
+     */
+    @Nullable
+    protected Collection<BlockPos> findPathTargetPositions()
+    {
+        return null;
+    }
+
+    /**
+     * Tries to reuse the current path to reach any of the given blocks instead of searching for a new path.
+     * If the current path passes within range of one of the blocks, it is trimmed to end there.
+     * Otherwise, if the blockling has reached the end of its path, it is extended by a short search to any of the blocks within a few blocks.
+     * Used when moving on to the next block of a vein or tree, which is usually next to the last.
+     *
+     * @param blockPositions the positions of the blocks to reach.
+     * @return true if the path was repaired and the path target pos set.
+     */
+    protected boolean tryRepairPath(@Nonnull Collection<BlockPos> blockPositions)
+    {
+        if (!hasPath() || isStuck())
+        {
+            return false;
+        }
+
+        float rangeSq = getRangeSq();
+        int nextNodeIndex = path.getNextNodeIndex();
+
+        for (int i = Math.max(nextNodeIndex - 1, 0); i < path.getNodeCount(); i++)
+        {
+            BlockPos nodePos = path.getNodePos(i);
+
+            for (BlockPos blockPos : blockPositions)
+            {
+                if (BlockUtil.distanceSq(blockPos, nodePos) < rangeSq)
+                {
+                    setPathTargetPos(blockPos, trimPath(path, i));
+
+                    return true;
+                }
+            }
+        }
+
+        if (!path.isDone())
+        {
+            return false;
+        }
+
+        BlockPos blocklingBlockPos = blockling.blockPosition();
+        List<BlockPos> nearbyBlockPositions = new ArrayList<>();
+
+        for (BlockPos blockPos : blockPositions)
+        {
+            if (blockPos.closerThan(blocklingBlockPos, MAX_REPAIR_DISTANCE))
             {
-                blockChunksToRemove.add(blockChunk);
+                nearbyBlockPositions.add(blockPos);
             }
+        }
+
+        if (nearbyBlockPositions.isEmpty())
+        {
+            return false;
+        }
+
+        Pair<BlockPos, Path> result = EntityUtil.createShortPathToAny(blockling, nearbyBlockPositions, rangeSq, MAX_REPAIR_DISTANCE);
+
+        if (result == null)
+        {
+            return false;
+        }
+
+        setPathTargetPos(result.getKey(), result.getValue());
+
+        return true;
+    }
+
+    /**
+     * @param path the path to trim.
+     * @param lastNodeIndex the index of the node the trimmed path should end at.
+     * @return a copy of the given path ending at the given node, with the same progress along it.
+     */
+    @Nonnull
+    private static Path trimPath(@Nonnull Path path, int lastNodeIndex)
+    {
+        List<PathPoint> nodes = new ArrayList<>(lastNodeIndex + 1);
+
+        for (int i = 0; i <= lastNodeIndex; i++)
+        {
+            nodes.add(path.getNode(i));
+        }
 
-            badPathTargetChunks.put(blockChunk, cooldown);
-        });
+        Path trimmedPath = new Path(nodes, path.getNodePos(lastNodeIndex), true);
+        trimmedPath.setNextNodeIndex(Math.min(path.getNextNodeIndex(), nodes.size()));
 
-        blockChunksToRemove.forEach(badPathTargetChunks::remove);
+        return trimmedPath;
     }
 
     /**
@@ -224,7 +431,7 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
      */
     public boolean isBadPathTargetPos(@Nonnull BlockPos blockPos)
     {
-        return badPathTargetChunks.get(new BlockChunk(blockPos, world)) != null;
+        return badPathTargets.contains(blockPos);
     }
 
     /**
@@ -245,7 +452,7 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
      */
     public void markPathTargetPosBad(@Nonnull BlockPos blockPos)
     {
-        badPathTargetChunks.put(new BlockChunk(blockPos, world), BAD_PATH_TARGET_COOLDOWN_INTERVAL);
+        badPathTargets.add(blockPos, BAD_PATH_TARGET_COOLDOWN_INTERVAL);
     }
 
     /**
@@ -307,7 +514,7 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
         pathTargetPos = blockPos;
         path = pathToPos;
 
-        if (hasPathTargetPos())
+        if (hasPathTargetPos() && pathToPos == null)
         {
             Path newPath = EntityUtil.createPathTo(blockling, pathTargetPos, getRangeSq());
 
@@ -329,6 +536,20 @@ public abstract class BlocklingPathGoal extends BlocklingGoal
         }
     }
 
+    @Override
+    public void collectDebugInfo(@Nonnull BlocklingDebugInfo info)
+    {
+        super.collectDebugInfo(info);
+
+        if (hasPath())
+        {
+            info.setPath(path);
+        }
+
+        info.pathTargetPos = pathTargetPos;
+        BlocklingDebugInfo.addCapped(info.badPathTargets, badPathTargets);
+    }
+
     /**
      * @return the range a blockling can reach the path target pos squared.
      */
@@ -2,11 +2,10 @@ package com.willr27.blocklings.entity.blockling.goal;
 
 import com.willr27.blocklings.entity.blockling.BlocklingEntity;
 import com.willr27.blocklings.entity.blockling.task.BlocklingTasks;
+import net.minecraft.util.math.BlockPos;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -16,6 +15,26 @@ import java.util.UUID;
  */
 public abstract class BlocklingTargetGoal<T> extends BlocklingPathGoal
 {
+    /**
+     * The number of ticks to wait before searching again the first time no target can be found.
+     */
+    private static final int MIN_IDLE_TICKS = 10;
+
+    /**
+     * The max number of ticks to wait before searching again when no target can be found.
+     */
+    private static final int MAX_IDLE_TICKS = 20 * 10;
+
+    /**
+     * The max distance the blockling can move while idle before it searches again.
+     */
+    private static final double IDLE_MOVE_DIST = 2.0;
+
+    /**
+     * The number of ticks a bad target is ignored for, unless the goal fails to find a target first.
+     */
+    private static final int BAD_TARGET_COOLDOWN_INTERVAL = 60 * 20;
+
     /**
      * The current target (block position, entity etc.).
      */
@@ -29,10 +48,32 @@ public abstract class BlocklingTargetGoal<T> extends BlocklingPathGoal
     private T prevTarget;
 
     /**
-     * The set of targets to ignore as they were recently deemed invalid.
+     * The targets to ignore as they were recently deemed invalid.
      */
     @Nonnull
-    public final Set<T> badTargets = new HashSet<>();
+    public final BadTargets<T> badTargets = new BadTargets<>(world, null);
+
+    /**
+     * The number of ticks the goal is currently waiting between searches when no target can be found.
+     * Doubles each time a search fails (up to {@link #MAX_IDLE_TICKS}) and resets when a target is found.
+     */
+    private int idleTicks = 0;
+
+    /**
+     * The game time the goal started idling at.
+     */
+    private long idleStartTime = 0;
+
+    /**
+     * The game time the goal will stop idling at.
+     */
+    private long idleEndTime = 0;
+
+    /**
+     * The position of the blockling when it started idling.
+     */
+    @Nullable
+    private BlockPos idleBlockPos = null;
 
     /**
      * @param id the id associated with the owning task of this goal.
@@ -55,13 +96,26 @@ public abstract class BlocklingTargetGoal<T> extends BlocklingPathGoal
             return false;
         }
 
+        if (isIdle())
+        {
+            return false;
+        }
+
         boolean recalulatedTarget = tryRecalcTarget();
 
+        // Keep the bad targets around until the search in progress has finished with them.
+        if (!recalulatedTarget && isSearchingForTarget())
+        {
+            return false;
+        }
+
         if (!recalulatedTarget || !recalcPath(false) || isStuck())
         {
             if (!recalulatedTarget)
             {
                 badTargets.clear();
+
+                startIdling();
             }
 
             markEntireTargetBad();
@@ -71,6 +125,8 @@ public abstract class BlocklingTargetGoal<T> extends BlocklingPathGoal
             return false;
         }
 
+        idleTicks = 0;
+
         return true;
     }
 
@@ -120,6 +176,71 @@ public abstract class BlocklingTargetGoal<T> extends BlocklingPathGoal
      */
     public abstract boolean tryRecalcTarget();
 
+    /**
+     * Waits before searching again, backing off exponentially each time a search fails in a row.
+     */
+    private void startIdling()
+    {
+        if (!shouldBackOffWhenIdle())
+        {
+            return;
+        }
+
+        idleTicks = idleTicks == 0 ? MIN_IDLE_TICKS : Math.min(idleTicks * 2, MAX_IDLE_TICKS);
+        idleStartTime = world.getGameTime();
+        idleEndTime = idleStartTime + idleTicks;
+        idleBlockPos = blockling.blockPosition();
+    }
+
+    /**
+     * Checks whether the goal is still idling, stopping early if the blockling has moved or something relevant has changed nearby.
+     *
+     * @return true if the goal should not search for a target yet.
+     */
+    private boolean isIdle()
+    {
+        if (idleBlockPos == null)
+        {
+            return false;
+        }
+
+        if (world.getGameTime() >= idleEndTime || !idleBlockPos.closerThan(blockling.position(), IDLE_MOVE_DIST) || shouldWakeFromIdle(idleStartTime))
+        {
+            idleBlockPos = null;
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if the goal should wait before searching again when no target can be found.
+     */
+    protected boolean shouldBackOffWhenIdle()
+    {
+        return true;
+    }
+
+    /**
+     * Used to stop idling early when something happens that could give the goal a new target.
+     *
+     * @param idleStartTime the game time the goal started idling at.
+     * @return true if the goal should search for a target again now.
+     */
+    protected boolean shouldWakeFromIdle(long idleStartTime)
+    {
+        return false;
+    }
+
+    /**
+     * @return true if a search for a new target is still in progress (e.g. running over several ticks).
+     */
+    protected boolean isSearchingForTarget()
+    {
+        return false;
+    }
+
     /**
      * Checks for and removes any invalid targets.
      */
@@ -146,13 +267,13 @@ public abstract class BlocklingTargetGoal<T> extends BlocklingPathGoal
 
     /**
      * Marks the given target as bad.
-     * It will then be ignored until the target goal starts again.
+     * It will then be ignored until its cooldown expires or the goal fails to find a target.
      *
      * @param target the target to mark as bad.
      */
     public void markBad(@Nonnull T target)
     {
-        badTargets.add(target);
+        badTargets.add(target, BAD_TARGET_COOLDOWN_INTERVAL);
     }
 
     /**
@@ -7,6 +7,8 @@ import com.willr27.blocklings.entity.blockling.task.BlocklingTasks;
 import com.willr27.blocklings.entity.blockling.whitelist.GoalWhitelist;
 import com.willr27.blocklings.entity.blockling.whitelist.Whitelist;
 import com.willr27.blocklings.util.*;
+import com.willr27.blocklings.world.GatherTargetIndex;
+import com.willr27.blocklings.world.ReachabilityRegions;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.CropsBlock;
@@ -18,7 +20,9 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -56,12 +60,12 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
         super(id, blockling, tasks);
 
         cropWhitelist = new GoalWhitelist("25140edf-f60e-459e-b1f0-9ff82108ec0b", "crops", Whitelist.Type.BLOCK, this);
-        cropWhitelist.setIsUnlocked(blockling.getSkills().getSkill(FarmingSkills.CROP_WHITELIST).isBought(), false);
+        cropWhitelist.setIsUnlocked(blockling.getSkills().isBought(FarmingSkills.CROP_WHITELIST), false);
         BlockUtil.CROPS.get().forEach(crop -> cropWhitelist.put(crop.getRegistryName(), true));
         whitelists.add(cropWhitelist);
 
         seedWhitelist = new GoalWhitelist("d77bf1c1-7718-4733-b763-298b03340eea", "seeds", Whitelist.Type.ITEM, this);
-        seedWhitelist.setIsUnlocked(blockling.getSkills().getSkill(FarmingSkills.SEED_WHITELIST).isBought(), false);
+        seedWhitelist.setIsUnlocked(blockling.getSkills().isBought(FarmingSkills.SEED_WHITELIST), false);
         BlockUtil.CROPS.get().forEach(crop ->
         {
             if (crop instanceof CropsBlock)
@@ -130,12 +134,12 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
                         blockling.dropItemStack(stack);
                     }
 
-                    if (ToolUtil.damageTool(mainStack, blockling, mainCanHarvest ? blockling.getSkills().getSkill(FarmingSkills.HASTY).isBought() ? 2 : 1 : 0))
+                    if (ToolUtil.damageTool(mainStack, blockling, mainCanHarvest ? blockling.getSkills().isBought(FarmingSkills.HASTY) ? 2 : 1 : 0))
                     {
                         mainStack.shrink(1);
                     }
 
-                    if (ToolUtil.damageTool(offStack, blockling, offCanHarvest ? blockling.getSkills().getSkill(FarmingSkills.HASTY).isBought() ? 2 : 1 : 0))
+                    if (ToolUtil.damageTool(offStack, blockling, offCanHarvest ? blockling.getSkills().isBought(FarmingSkills.HASTY) ? 2 : 1 : 0))
                     {
                         offStack.shrink(1);
                     }
@@ -144,7 +148,7 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
 
                     ItemStack seedStack = ItemStack.EMPTY;
 
-                    if (blockling.getSkills().getSkill(FarmingSkills.REPLANTER).isBought() && targetBlock instanceof CropsBlock)
+                    if (blockling.getSkills().isBought(FarmingSkills.REPLANTER) && targetBlock instanceof CropsBlock)
                     {
                         CropsBlock cropsBlock = (CropsBlock) targetBlock;
                         seedStack = cropsBlock.getCloneItemStack(world, targetPos, targetBlockState);
@@ -153,7 +157,7 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
                     world.destroyBlock(targetPos, false);
                     world.destroyBlockProgress(blockling.getId(), targetPos, -1);
 
-                    if (blockling.getSkills().getSkill(FarmingSkills.SCYTHE).isBought())
+                    if (blockling.getSkills().isBought(FarmingSkills.SCYTHE))
                     {
                         for (BlockPos surroundingPos : BlockUtil.getSurroundingBlockPositions(targetPos))
                         {
@@ -172,7 +176,7 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
 
                                 ItemStack seedStack2 = ItemStack.EMPTY;
 
-                                if (blockling.getSkills().getSkill(FarmingSkills.REPLANTER).isBought() && surroundingBlock instanceof CropsBlock)
+                                if (blockling.getSkills().isBought(FarmingSkills.REPLANTER) && surroundingBlock instanceof CropsBlock)
                                 {
                                     CropsBlock cropsBlock = (CropsBlock) surroundingBlock;
                                     seedStack2 = cropsBlock.getCloneItemStack(world, surroundingPos, surroundingBlockState);
@@ -249,60 +253,57 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
     }
 
     /**
-     * Tries to find the nearest tree.
+     * Tries to find the nearest crop.
+     * The search runs over several ticks, so this returns false until it has finished.
      *
-     * @return true if a tree was found.
+     * @return true if a crop was found.
      */
     private boolean tryFindCrop()
     {
-        BlockPos blocklingBlockPos = blockling.blockPosition();
+        BlockPos cropPos = searchForTarget(GatherTargetIndex.Category.CROP, SEARCH_RADIUS_X, SEARCH_RADIUS_Y);
 
-        BlockPos closestPos = null;
-        double closestCropDistSq = Float.MAX_VALUE;
-
-        for (int i = -SEARCH_RADIUS_X; i <= SEARCH_RADIUS_X; i++)
+        // The crop may have changed since the search tested it, so test it again.
+        if (cropPos == null || !isValidTarget(cropPos))
         {
-            for (int j = -SEARCH_RADIUS_Y; j <= SEARCH_RADIUS_Y; j++)
-            {
-                for (int k = -SEARCH_RADIUS_X; k <= SEARCH_RADIUS_X; k++)
-                {
-                    BlockPos testBlockPos = blocklingBlockPos.offset(i, j, k);
+            return false;
+        }
 
-                    if (isValidTarget(testBlockPos))
-                    {
-                        float distanceSq = (float) blockling.distanceToSqr(testBlockPos.getX() + 0.5f, testBlockPos.getY() + 0.5f, testBlockPos.getZ() + 0.5f);
+        setTarget(cropPos);
 
-                        if (distanceSq < closestCropDistSq)
-                        {
-                            closestPos = testBlockPos;
-                            closestCropDistSq = distanceSq;
+        return true;
+    }
 
-                            break;
-                        }
-                    }
-                }
-            }
+    /**
+     * Finds the first valid path to the crop, not necessarily the most optimal.
+     *
+     * @return the path target position and the path to the crop, or null if no path could be found.
+     */
+    @Nullable
+    public Pair<BlockPos, Path> findPathToCrop()
+    {
+        if (findPathTargetPositions() == null)
+        {
+            return null;
         }
 
-        if (closestPos != null)
-        {
-            setTarget(closestPos);
+        Path path = EntityUtil.createPathTo(blockling, getTarget(), getRangeSq());
 
-            return true;
+        if (path != null)
+        {
+            return new MutablePair<>(getTarget(), path);
         }
 
-        return false;
+        return null;
     }
 
     /**
-     * Finds the first valid path to the crop, not necessarily the most optimal.
-     *
-     * @return the path target position and the path to the crop, or null if no path could be found.
+     * @return the crop's position if it is worth pathing to, or null if it is buried, bad or can't be reached.
      */
     @Nullable
-    public Pair<BlockPos, Path> findPathToCrop()
+    @Override
+    protected List<BlockPos> findPathTargetPositions()
     {
-        if (BlockUtil.areAllAdjacentBlocksSolid(world, getTarget()))
+        if (!hasTarget() || BlockUtil.areAllAdjacentBlocksSolid(loadedBlocks, getTarget()))
         {
             return null;
         }
@@ -312,14 +313,14 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
             return null;
         }
 
-        Path path = EntityUtil.createPathTo(blockling, getTarget(), getRangeSq());
+        List<BlockPos> pathTargetPositions = Collections.singletonList(getTarget());
 
-        if (path != null)
+        if (!ReachabilityRegions.get(world).canReachAny(blockling, pathTargetPositions, getRangeSq()))
         {
-            return new MutablePair<>(getTarget(), path);
+            return null;
         }
 
-        return null;
+        return pathTargetPositions;
     }
 
     @Override
@@ -346,6 +347,13 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
         return cropWhitelist.isEntryWhitelisted(block);
     }
 
+    @Override
+    @Nonnull
+    protected GoalWhitelist getTargetWhitelist()
+    {
+        return cropWhitelist;
+    }
+
     @Override
     protected boolean isValidPathTargetPos(@Nonnull BlockPos blockPos)
     {
@@ -360,7 +368,7 @@ public class BlocklingFarmGoal extends BlocklingGatherGoal
             return false;
         }
 
-        BlockState blockState = world.getBlockState(target);
+        BlockState blockState = loadedBlocks.getBlockState(target);
         Block block = blockState.getBlock();
 
         if (block instanceof CropsBlock)
@@ -5,9 +5,11 @@ import com.willr27.blocklings.entity.blockling.goal.BlocklingGoal;
 import com.willr27.blocklings.entity.blockling.task.BlocklingTasks;
 import com.willr27.blocklings.entity.blockling.task.config.RangeProperty;
 import com.willr27.blocklings.util.BlocklingsTranslationTextComponent;
+import com.willr27.blocklings.world.FollowFlowFields;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.pathfinding.PathNavigator;
 import net.minecraft.pathfinding.PathNodeType;
+import net.minecraft.util.math.BlockPos;
 
 import javax.annotation.Nonnull;
 import java.util.EnumSet;
@@ -18,6 +20,21 @@ import java.util.UUID;
  */
 public class BlocklingFollowGoal extends BlocklingGoal
 {
+    /**
+     * The number of ticks between checking whether the blockling has got closer to its owner while following the flow field.
+     */
+    private static final int PROGRESS_CHECK_INTERVAL = 20;
+
+    /**
+     * The min distance the blockling needs to have got closer to its owner by each progress check to not be considered stuck.
+     */
+    private static final double MIN_PROGRESS = 0.5;
+
+    /**
+     * The number of ticks the flow field is ignored for after the blockling gets stuck following it.
+     */
+    private static final int FLOW_FIELD_COOLDOWN = 20 * 3;
+
     /**
      * The speed modifier.
      */
@@ -56,6 +73,26 @@ public class BlocklingFollowGoal extends BlocklingGoal
      */
     private float oldWaterCost;
 
+    /**
+     * Whether the blockling is currently moving using the owner's flow field rather than its navigator.
+     */
+    private boolean isFollowingFlowField = false;
+
+    /**
+     * The number of ticks until the next progress check while following the flow field.
+     */
+    private int timeToProgressCheck;
+
+    /**
+     * The distance to the owner at the last progress check.
+     */
+    private double lastProgressDistance;
+
+    /**
+     * The number of ticks left until the flow field can be used again after getting stuck.
+     */
+    private int flowFieldCooldown;
+
     /**
      * @param id the id associated with the goal's task.
      * @param blockling the blockling.
@@ -111,7 +148,7 @@ public class BlocklingFollowGoal extends BlocklingGoal
             return false;
         }
 
-        if (navigation.isDone())
+        if (navigation.isDone() && !isFollowingFlowField)
         {
             return false;
         }
@@ -137,6 +174,7 @@ public class BlocklingFollowGoal extends BlocklingGoal
         super.stop();
 
         owner = null;
+        isFollowingFlowField = false;
         navigation.stop();
         blockling.setPathfindingMalus(PathNodeType.WATER, oldWaterCost);
     }
@@ -148,15 +186,73 @@ public class BlocklingFollowGoal extends BlocklingGoal
 
         blockling.getLookControl().setLookAt(owner, 10.0f, (float) blockling.getMaxHeadXRot());
 
-        if (--timeToRecalcPath <= 0)
+        if (blockling.isLeashed() || blockling.isPassenger())
         {
-            timeToRecalcPath = 10;
+            return;
+        }
+
+        if (flowFieldCooldown > 0)
+        {
+            flowFieldCooldown--;
+        }
+
+        // Blocklings following the same owner share a single flow field, only falling back to pathing when outside it or stuck.
+        BlockPos nextStep = flowFieldCooldown > 0 ? null : FollowFlowFields.get(world).getNextStep(owner, blockling);
 
-            if (!blockling.isLeashed() && !blockling.isPassenger())
+        if (nextStep != null && !isStuck())
+        {
+            if (!isFollowingFlowField)
             {
+                isFollowingFlowField = true;
+                timeToProgressCheck = PROGRESS_CHECK_INTERVAL;
+                lastProgressDistance = blockling.distanceTo(owner);
                 navigation.stop();
-                navigation.moveTo(owner, speedModifier);
             }
+
+            blockling.getMoveControl().setWantedPosition(nextStep.getX() + 0.5, nextStep.getY(), nextStep.getZ() + 0.5, speedModifier);
+
+            return;
+        }
+        else if (isFollowingFlowField)
+        {
+            isFollowingFlowField = false;
+            timeToRecalcPath = 0;
+        }
+
+        if (--timeToRecalcPath <= 0)
+        {
+            timeToRecalcPath = 10;
+
+            navigation.stop();
+            navigation.moveTo(owner, speedModifier);
         }
     }
+
+    /**
+     * Checks whether the blockling has stopped getting closer to its owner while following the flow field.
+     * If so, the flow field is ignored for a while so the navigator can path around whatever is in the way.
+     *
+     * @return true if the blockling is stuck following the flow field.
+     */
+    private boolean isStuck()
+    {
+        if (!isFollowingFlowField || --timeToProgressCheck > 0)
+        {
+            return false;
+        }
+
+        double distance = blockling.distanceTo(owner);
+
+        if (lastProgressDistance - distance < MIN_PROGRESS)
+        {
+            flowFieldCooldown = FLOW_FIELD_COOLDOWN;
+
+            return true;
+        }
+
+        timeToProgressCheck = PROGRESS_CHECK_INTERVAL;
+        lastProgressDistance = distance;
+
+        return false;
+    }
 }
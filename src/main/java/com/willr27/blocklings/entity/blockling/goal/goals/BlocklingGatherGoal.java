@@ -1,30 +1,74 @@
 package com.willr27.blocklings.entity.blockling.goal.goals;
 
+import com.willr27.blocklings.Blocklings;
+import com.willr27.blocklings.config.BlocklingsConfig;
+import com.willr27.blocklings.debug.BlocklingDebugInfo;
 import com.willr27.blocklings.entity.blockling.BlocklingEntity;
 import com.willr27.blocklings.entity.blockling.BlocklingHand;
 import com.willr27.blocklings.entity.blockling.goal.BlocklingTargetGoal;
 import com.willr27.blocklings.entity.blockling.skill.skills.GeneralSkills;
 import com.willr27.blocklings.entity.blockling.task.BlocklingTasks;
+import com.willr27.blocklings.entity.blockling.whitelist.GoalWhitelist;
+import com.willr27.blocklings.util.LongPosSet;
 import com.willr27.blocklings.util.ToolContext;
 import com.willr27.blocklings.util.ToolType;
 import com.willr27.blocklings.util.ToolUtil;
+import com.willr27.blocklings.world.ChunkSnapshot;
+import com.willr27.blocklings.world.GatherTargetIndex;
+import com.willr27.blocklings.world.ScanScheduler;
+import com.willr27.blocklings.world.SearchExecutor;
+import com.willr27.blocklings.world.VisibilityCache;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 import net.minecraft.command.arguments.EntityAnchorArgument;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.vector.Vector3d;
+import net.minecraftforge.registries.ForgeRegistries;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Contains common behaviour shared between gathering goals.
  */
 public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
 {
+    /**
+     * The search for a new target currently running on the world's scan scheduler, null if there isn't one.
+     */
+    @Nullable
+    private TargetSearch targetSearch;
+
+    /**
+     * The search for a new target currently running on a worker thread, null if there isn't one.
+     * Used instead of {@link #targetSearch} when off thread searches are enabled.
+     */
+    @Nullable
+    private CompletableFuture<BlockPos> asyncTargetSearch;
+
+    /**
+     * The category of block the last target search looked for, null if there hasn't been one.
+     */
+    @Nullable
+    private GatherTargetIndex.Category searchCategory;
+
+    /**
+     * The x and z radius of the last target search.
+     */
+    private int searchRadiusXZ;
+
+    /**
+     * The y radius of the last target search.
+     */
+    private int searchRadiusY;
+
     /**
      * @param id the id associated with the owning task of this goal.
      * @param blockling the blockling the goal is assigned to.
@@ -40,6 +84,8 @@ public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
     {
         if (!super.canUse())
         {
+            cancelTargetSearch();
+
             return false;
         }
 
@@ -69,6 +115,7 @@ public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
         super.stop();
 
         setPathTargetPos(null, null);
+        cancelTargetSearch();
 
         blockling.getActions().gather.stop();
     }
@@ -116,7 +163,7 @@ public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
             blockling.lookAt(EntityAnchorArgument.Type.EYES, new Vector3d(getTarget().getX() + 0.5, getTarget().getY() + 0.5, getTarget().getZ() + 0.5));
         }
 
-        if (blockling.getSkills().getSkill(GeneralSkills.AUTOSWITCH).isBought())
+        if (blockling.getSkills().isBought(GeneralSkills.AUTOSWITCH))
         {
             blockling.getEquipment().trySwitchToBestTool(BlocklingHand.BOTH, new ToolContext(getToolType(), getTargetBlockState()));
         }
@@ -141,13 +188,13 @@ public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
             return false;
         }
 
-        BlockState blockState = world.getBlockState(blockPos);
+        BlockState blockState = loadedBlocks.getBlockState(blockPos);
 
         if (blockling.getEquipment().canHarvestBlockWithEquippedTools(blockState))
         {
             return true;
         }
-        else if (blockling.getSkills().getSkill(GeneralSkills.AUTOSWITCH).isBought())
+        else if (blockling.getSkills().isBought(GeneralSkills.AUTOSWITCH))
         {
             Pair<ItemStack, ItemStack> bestTools = blockling.getEquipment().findBestToolsToSwitchTo(BlocklingHand.BOTH, new ToolContext(getToolType(), blockState));
 
@@ -160,6 +207,232 @@ public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
         return false;
     }
 
+    /**
+     * Finds the positions of the given category of block within the search area around the blockling.
+     * The positions are ordered from closest to furthest, so searches can stop at the first valid target they find.
+     * The blocks in the goal's target whitelist are included in the category first, so whitelisted blocks outside the default lists are found too.
+     *
+     * @param category the category of block to find.
+     * @param radiusXZ the x and z search radius.
+     * @param radiusY the y search radius.
+     * @return the list of candidate positions ordered by distance to the blockling.
+     */
+    @Nonnull
+    protected List<BlockPos> findCandidatesByDistance(@Nonnull GatherTargetIndex.Category category, int radiusXZ, int radiusY)
+    {
+        BlockPos blocklingBlockPos = blockling.blockPosition();
+
+        GatherTargetIndex index = GatherTargetIndex.get(world);
+        index.include(category, findWhitelistedBlocks(getTargetWhitelist()));
+
+        List<BlockPos> candidates = index.find(category, blocklingBlockPos.offset(-radiusXZ, -radiusY, -radiusXZ), blocklingBlockPos.offset(radiusXZ, radiusY, radiusXZ));
+        candidates.sort(Comparator.comparingDouble(blockPos -> blockling.distanceToSqr(blockPos.getX() + 0.5, blockPos.getY() + 0.5, blockPos.getZ() + 0.5)));
+
+        return candidates;
+    }
+
+    /**
+     * Searches for a new target over several ticks using the world's scan scheduler, or on a worker thread if off thread searches are enabled.
+     * The first call starts the search, then each following call checks whether it has finished.
+     * As blocks may change while the search runs, callers should check the result is still valid.
+     *
+     * @param category the category of block to find.
+     * @param radiusXZ the x and z search radius.
+     * @param radiusY the y search radius.
+     * @return the closest candidate the finished search accepted, or null if still searching or nothing was found.
+     */
+    @Nullable
+    protected BlockPos searchForTarget(@Nonnull GatherTargetIndex.Category category, int radiusXZ, int radiusY)
+    {
+        if (targetSearch == null && asyncTargetSearch == null)
+        {
+            searchCategory = category;
+            searchRadiusXZ = radiusXZ;
+            searchRadiusY = radiusY;
+
+            List<BlockPos> candidates = findCandidatesByDistance(category, radiusXZ, radiusY);
+
+            if (BlocklingsConfig.COMMON.offThreadSearches.get())
+            {
+                BlockPos blocklingBlockPos = blockling.blockPosition();
+                SearchSnapshot snapshot = captureSearchSnapshot(candidates, blocklingBlockPos.offset(-radiusXZ, -radiusY, -radiusXZ), blocklingBlockPos.offset(radiusXZ, radiusY, radiusXZ));
+
+                asyncTargetSearch = SearchExecutor.submit(() -> findTargetInSnapshot(candidates, snapshot));
+            }
+            else
+            {
+                targetSearch = new TargetSearch(candidates);
+                ScanScheduler.get(world).submit(targetSearch);
+            }
+
+            return null;
+        }
+
+        if (asyncTargetSearch != null)
+        {
+            if (!asyncTargetSearch.isDone())
+            {
+                return null;
+            }
+
+            CompletableFuture<BlockPos> search = asyncTargetSearch;
+            asyncTargetSearch = null;
+
+            try
+            {
+                return search.join();
+            }
+            catch (CompletionException e)
+            {
+                Blocklings.LOGGER.warn("An off thread blockling search failed.", e.getCause());
+
+                return null;
+            }
+        }
+
+        if (!targetSearch.isFinished())
+        {
+            return null;
+        }
+
+        BlockPos result = targetSearch.result;
+        targetSearch = null;
+
+        return result;
+    }
+
+    /**
+     * Cancels the current target search (if there is one), so it stops using the scan budget and its result is never used.
+     */
+    private void cancelTargetSearch()
+    {
+        if (targetSearch != null)
+        {
+            targetSearch.cancel();
+            targetSearch = null;
+        }
+
+        if (asyncTargetSearch != null)
+        {
+            asyncTargetSearch.cancel(false);
+            asyncTargetSearch = null;
+        }
+    }
+
+    @Override
+    protected boolean isSearchingForTarget()
+    {
+        return targetSearch != null || asyncTargetSearch != null;
+    }
+
+    @Override
+    protected boolean shouldWakeFromIdle(long idleStartTime)
+    {
+        if (searchCategory == null)
+        {
+            return false;
+        }
+
+        BlockPos blocklingBlockPos = blockling.blockPosition();
+
+        return GatherTargetIndex.get(world).hasAppearedSince(searchCategory, blocklingBlockPos.offset(-searchRadiusXZ, -searchRadiusY, -searchRadiusXZ), blocklingBlockPos.offset(searchRadiusXZ, searchRadiusY, searchRadiusXZ), idleStartTime);
+    }
+
+    /**
+     * Tests a candidate position during a target search.
+     *
+     * @param candidate the candidate position.
+     * @param testedBlockPositions the positions already tested by the search, which can be added to if testing the candidate covers other positions.
+     * @return true if the candidate should be the new target.
+     */
+    protected boolean testCandidate(@Nonnull BlockPos candidate, @Nonnull LongPosSet testedBlockPositions)
+    {
+        return isValidTarget(candidate);
+    }
+
+    /**
+     * Tests a candidate position during an off thread target search.
+     * This is called from a worker thread, so must only read from the given snapshot and not the world, blockling or goal state.
+     *
+     * @param candidate the candidate position.
+     * @param snapshot the snapshot of the search area.
+     * @param testedBlockPositions the positions already tested by the search, which can be added to if testing the candidate covers other positions.
+     * @return true if the candidate should be the new target.
+     */
+    protected boolean testCandidate(@Nonnull BlockPos candidate, @Nonnull SearchSnapshot snapshot, @Nonnull LongPosSet testedBlockPositions)
+    {
+        return snapshot.isValidTarget(candidate);
+    }
+
+    /**
+     * Captures everything an off thread target search needs to test the given candidates.
+     * Whether a block state is a valid target doesn't depend on its position (other than bad targets),
+     * so each distinct state among the candidates is tested once here rather than on the worker thread.
+     *
+     * @param candidates the candidate positions.
+     * @param minPos the minimum corner of the search area (inclusive).
+     * @param maxPos the maximum corner of the search area (inclusive).
+     * @return the snapshot.
+     */
+    @Nonnull
+    private SearchSnapshot captureSearchSnapshot(@Nonnull List<BlockPos> candidates, @Nonnull BlockPos minPos, @Nonnull BlockPos maxPos)
+    {
+        Set<BlockState> testedStates = new HashSet<>();
+        Set<BlockState> validTargetStates = new HashSet<>();
+        LongPosSet badTargetPositions = new LongPosSet(badTargets.size());
+
+        for (BlockPos badTarget : badTargets)
+        {
+            badTargetPositions.add(badTarget.asLong());
+        }
+
+        for (BlockPos candidate : candidates)
+        {
+            if (badTargets.contains(candidate))
+            {
+                continue;
+            }
+
+            BlockState blockState = loadedBlocks.getBlockState(candidate);
+
+            if (testedStates.add(blockState) && isValidTarget(candidate))
+            {
+                validTargetStates.add(blockState);
+            }
+        }
+
+        return new SearchSnapshot(new ChunkSnapshot(world, minPos, maxPos), validTargetStates, badTargetPositions, new Vector3d(blockling.getX(), blockling.getEyeY(), blockling.getZ()));
+    }
+
+    /**
+     * Tests the given candidates against a snapshot, from closest to furthest.
+     * Called on a worker thread.
+     *
+     * @param candidates the candidate positions ordered from closest to furthest.
+     * @param snapshot the snapshot of the search area.
+     * @return the first accepted candidate, or null if none were accepted.
+     */
+    @Nullable
+    private BlockPos findTargetInSnapshot(@Nonnull List<BlockPos> candidates, @Nonnull SearchSnapshot snapshot)
+    {
+        LongPosSet testedBlockPositions = new LongPosSet();
+
+        for (BlockPos candidate : candidates)
+        {
+            if (testedBlockPositions.contains(candidate.asLong()))
+            {
+                continue;
+            }
+
+            if (testCandidate(candidate, snapshot, testedBlockPositions))
+            {
+                return candidate;
+            }
+        }
+
+        return null;
+    }
+
     /**
      * @return the tool type used to harvest the targets.
      */
@@ -169,7 +442,7 @@ public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
     @Override
     public boolean isValidTarget(@Nullable BlockPos target)
     {
-        return isValidTargetPos(target) && isValidTargetBlock(world.getBlockState(target).getBlock()) && canHarvestPos(target);
+        return isValidTargetPos(target) && isValidTargetBlock(loadedBlocks.getBlockState(target).getBlock()) && canHarvestPos(target);
     }
 
     /**
@@ -187,6 +460,51 @@ public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
      */
     protected abstract boolean isValidTargetBlock(@Nonnull Block block);
 
+    /**
+     * @return the whitelist of blocks the goal targets.
+     */
+    @Nonnull
+    protected abstract GoalWhitelist getTargetWhitelist();
+
+    /**
+     * @param whitelist the whitelist of blocks.
+     * @return the blocks that are whitelisted in the given whitelist.
+     */
+    @Nonnull
+    private static List<Block> findWhitelistedBlocks(@Nonnull GoalWhitelist whitelist)
+    {
+        List<Block> blocks = new ArrayList<>();
+
+        for (Map.Entry<ResourceLocation, Boolean> entry : whitelist.entrySet())
+        {
+            Block block = entry.getValue() ? ForgeRegistries.BLOCKS.getValue(entry.getKey()) : null;
+
+            if (block != null && block != Blocks.AIR)
+            {
+                blocks.add(block);
+            }
+        }
+
+        return blocks;
+    }
+
+    @Override
+    public void collectDebugInfo(@Nonnull BlocklingDebugInfo info)
+    {
+        super.collectDebugInfo(info);
+
+        info.target = getTarget();
+        BlocklingDebugInfo.addCapped(info.badTargets, badTargets);
+
+        if (searchCategory != null)
+        {
+            // Searches are centred on the blockling, so show the region the next search would cover.
+            BlockPos blocklingBlockPos = blockling.blockPosition();
+            info.scanMin = blocklingBlockPos.offset(-searchRadiusXZ, -searchRadiusY, -searchRadiusXZ);
+            info.scanMax = blocklingBlockPos.offset(searchRadiusXZ, searchRadiusY, searchRadiusXZ);
+        }
+    }
+
     @Override
     public void markBad(@Nonnull BlockPos target)
     {
@@ -227,4 +545,148 @@ public abstract class BlocklingGatherGoal extends BlocklingTargetGoal<BlockPos>
     {
         return hasTarget() ? world.getBlockState(getTarget()) : null;
     }
+
+    /**
+     * Tests the candidate positions for a new target one at a time, from closest to furthest.
+     */
+    private class TargetSearch extends ScanScheduler.Search
+    {
+        /**
+         * The candidate positions left to test.
+         */
+        @Nonnull
+        private final Iterator<BlockPos> candidates;
+
+        /**
+         * The positions already tested.
+         */
+        @Nonnull
+        private final LongPosSet testedBlockPositions = new LongPosSet();
+
+        /**
+         * The accepted candidate, null if none has been accepted.
+         */
+        @Nullable
+        private BlockPos result;
+
+        /**
+         * @param candidates the candidate positions ordered from closest to furthest.
+         */
+        private TargetSearch(@Nonnull List<BlockPos> candidates)
+        {
+            this.candidates = candidates.iterator();
+        }
+
+        @Override
+        protected boolean step()
+        {
+            if (!blockling.isAlive() || !candidates.hasNext())
+            {
+                return true;
+            }
+
+            BlockPos candidate = candidates.next();
+
+            if (testedBlockPositions.contains(candidate.asLong()))
+            {
+                return false;
+            }
+
+            if (testCandidate(candidate, testedBlockPositions))
+            {
+                result = candidate;
+
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * The data captured on the server thread for an off thread target search.
+     */
+    public static class SearchSnapshot
+    {
+        /**
+         * The copy of the blocks in the search area.
+         */
+        @Nonnull
+        public final ChunkSnapshot blocks;
+
+        /**
+         * The block states that were valid targets when captured.
+         */
+        @Nonnull
+        private final Set<BlockState> validTargetStates;
+
+        /**
+         * The packed positions of the bad targets when captured.
+         */
+        @Nonnull
+        private final LongPosSet badTargetPositions;
+
+        /**
+         * The blockling's eye position when captured.
+         */
+        @Nonnull
+        private final Vector3d eyePos;
+
+        /**
+         * @param blocks the copy of the blocks in the search area.
+         * @param validTargetStates the block states that were valid targets.
+         * @param badTargetPositions the packed positions of the bad targets.
+         * @param eyePos the blockling's eye position.
+         */
+        private SearchSnapshot(@Nonnull ChunkSnapshot blocks, @Nonnull Set<BlockState> validTargetStates, @Nonnull LongPosSet badTargetPositions, @Nonnull Vector3d eyePos)
+        {
+            this.blocks = blocks;
+            this.validTargetStates = validTargetStates;
+            this.badTargetPositions = badTargetPositions;
+            this.eyePos = eyePos;
+        }
+
+        /**
+         * @param blockPos the position to test.
+         * @return true if the block at the given position was a valid target when captured.
+         */
+        public boolean isValidTarget(@Nonnull BlockPos blockPos)
+        {
+            return !badTargetPositions.contains(blockPos.asLong()) && validTargetStates.contains(blocks.getBlockState(blockPos));
+        }
+
+        /**
+         * @param blockPositions the positions to test.
+         * @return true if the blockling could see any of the given positions when captured.
+         */
+        public boolean canSeeAny(@Nonnull Iterable<BlockPos> blockPositions)
+        {
+            for (BlockPos blockPos : blockPositions)
+            {
+                if (VisibilityCache.testVisibility(blocks, eyePos, blockPos.getX(), blockPos.getY(), blockPos.getZ()))
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * @param packedBlockPositions the packed positions to test (see {@link BlockPos#asLong()}).
+         * @return true if the blockling could see any of the given positions when captured.
+         */
+        public boolean canSeeAny(@Nonnull long[] packedBlockPositions)
+        {
+            for (long packedBlockPos : packedBlockPositions)
+            {
+                if (VisibilityCache.testVisibility(blocks, eyePos, BlockPos.getX(packedBlockPos), BlockPos.getY(packedBlockPos), BlockPos.getZ(packedBlockPos)))
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
 }
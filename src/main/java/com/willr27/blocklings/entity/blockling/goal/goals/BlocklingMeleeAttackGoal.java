@@ -13,12 +13,14 @@ import com.willr27.blocklings.util.BlockUtil;
 import com.willr27.blocklings.util.EntityUtil;
 import com.willr27.blocklings.util.ToolContext;
 import com.willr27.blocklings.util.ToolType;
+import com.willr27.blocklings.world.PathCache;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.pathfinding.Path;
 import net.minecraft.util.math.BlockPos;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.UUID;
 
 /**
@@ -36,7 +38,7 @@ public abstract class BlocklingMeleeAttackGoal extends BlocklingTargetGoal<Livin
         super(id, blockling, tasks);
 
         GoalWhitelist whitelist = new GoalWhitelist("540241cd-085a-4c1f-9e90-8aea973568a8", "targets", Whitelist.Type.ENTITY, this);
-        whitelist.setIsUnlocked(blockling.getSkills().getSkill(CombatSkills.WHITELIST).isBought(), false);
+        whitelist.setIsUnlocked(blockling.getSkills().isBought(CombatSkills.WHITELIST), false);
         EntityUtil.VALID_ATTACK_TARGETS.get().keySet().forEach(type -> whitelist.put(type, true));
         whitelist.put(BlocklingsEntityTypes.BLOCKLING.getId(), false);
         whitelists.add(whitelist);
@@ -64,6 +66,13 @@ public abstract class BlocklingMeleeAttackGoal extends BlocklingTargetGoal<Livin
         return true;
     }
 
+    @Override
+    protected boolean shouldBackOffWhenIdle()
+    {
+        // Always look for a target so the blockling reacts to attacks straight away.
+        return false;
+    }
+
     @Override
     public void start()
     {
@@ -92,7 +101,7 @@ public abstract class BlocklingMeleeAttackGoal extends BlocklingTargetGoal<Livin
             return;
         }
 
-        if (blockling.getSkills().getSkill(GeneralSkills.AUTOSWITCH).isBought())
+        if (blockling.getSkills().isBought(GeneralSkills.AUTOSWITCH))
         {
             blockling.getEquipment().trySwitchToBestTool(BlocklingHand.BOTH, new ToolContext(ToolType.WEAPON, getTarget()));
         }
@@ -121,7 +130,8 @@ public abstract class BlocklingMeleeAttackGoal extends BlocklingTargetGoal<Livin
             return false;
         }
 
-        Path path = blockling.getNavigation().createPath(getTarget(), 0);
+        LivingEntity target = getTarget();
+        Path path = PathCache.get(world).createPath(blockling, Collections.singleton(target.blockPosition()), () -> blockling.getNavigation().createPath(target, 0));
 
         if (path != null && BlockUtil.distanceSq(getTarget().blockPosition(), path.getTarget()) > getRangeSq())
         {
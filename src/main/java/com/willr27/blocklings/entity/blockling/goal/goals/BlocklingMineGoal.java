@@ -1,6 +1,6 @@
 package com.willr27.blocklings.entity.blockling.goal.goals;
 
-import com.mojang.datafixers.util.Pair;
+import com.willr27.blocklings.debug.BlocklingDebugInfo;
 import com.willr27.blocklings.entity.blockling.BlocklingEntity;
 import com.willr27.blocklings.entity.blockling.BlocklingHand;
 import com.willr27.blocklings.entity.blockling.skill.skills.MiningSkills;
@@ -8,16 +8,22 @@ import com.willr27.blocklings.entity.blockling.task.BlocklingTasks;
 import com.willr27.blocklings.entity.blockling.whitelist.GoalWhitelist;
 import com.willr27.blocklings.entity.blockling.whitelist.Whitelist;
 import com.willr27.blocklings.util.*;
+import com.willr27.blocklings.world.GatherTargetIndex;
+import com.willr27.blocklings.world.ReachabilityRegions;
+import com.willr27.blocklings.world.VisibilityCache;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.ai.goal.Goal;
 import net.minecraft.item.ItemStack;
 import net.minecraft.pathfinding.Path;
+import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
+import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Mines the targeted ore/vein.
@@ -39,6 +45,12 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
      */
     private static final int MAX_VEIN_SIZE = 40;
 
+    /**
+     * The directions a vein can spread in.
+     */
+    @Nonnull
+    private static final Direction[] VEIN_DIRECTIONS = new Direction[] { Direction.WEST, Direction.EAST, Direction.DOWN, Direction.UP, Direction.NORTH, Direction.SOUTH };
+
     /**
      * The list of block positions in the current vein.
      */
@@ -52,10 +64,16 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
     public final GoalWhitelist oreWhitelist;
 
     /**
-     * The set of positions we have attempted to use as path targets so far.
+     * The packed positions visited by the current vein search, reused between searches.
      */
     @Nonnull
-    private final Set<BlockPos> pathTargetPositionsTested = new HashSet<>();
+    private final LongPosSet veinVisitedBlockPositions = new LongPosSet(MAX_VEIN_SIZE * 6);
+
+    /**
+     * The packed positions still to be tested by the current vein search, reused between searches.
+     */
+    @Nonnull
+    private final LongPosQueue veinBlockPositionsToTest = new LongPosQueue();
 
     /**
      * @param id the id associated with the owning task of this goal.
@@ -67,7 +85,7 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
         super(id, blockling, tasks);
 
         oreWhitelist = new GoalWhitelist("24d7135e-607b-413b-a2a7-00d19119b9de", "ores", Whitelist.Type.BLOCK, this);
-        oreWhitelist.setIsUnlocked(blockling.getSkills().getSkill(MiningSkills.WHITELIST).isBought(), false);
+        oreWhitelist.setIsUnlocked(blockling.getSkills().isBought(MiningSkills.WHITELIST), false);
         BlockUtil.ORES.get().forEach(ore -> oreWhitelist.put(ore.getRegistryName(), true));
         whitelists.add(oreWhitelist);
 
@@ -137,12 +155,12 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
                         blockling.dropItemStack(stack);
                     }
 
-                    if (ToolUtil.damageTool(mainStack, blockling, mainCanHarvest ? blockling.getSkills().getSkill(MiningSkills.HASTY).isBought() ? 2 : 1 : 0))
+                    if (ToolUtil.damageTool(mainStack, blockling, mainCanHarvest ? blockling.getSkills().isBought(MiningSkills.HASTY) ? 2 : 1 : 0))
                     {
                         mainStack.shrink(1);
                     }
 
-                    if (ToolUtil.damageTool(offStack, blockling, offCanHarvest ? blockling.getSkills().getSkill(MiningSkills.HASTY).isBought() ? 2 : 1 : 0))
+                    if (ToolUtil.damageTool(offStack, blockling, offCanHarvest ? blockling.getSkills().isBought(MiningSkills.HASTY) ? 2 : 1 : 0))
                     {
                         offStack.shrink(1);
                     }
@@ -152,7 +170,7 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
                     world.destroyBlock(targetPos, false);
                     world.destroyBlockProgress(blockling.getId(), targetPos, -1);
 
-                    if (blockling.getSkills().getSkill(MiningSkills.HAMMER).isBought())
+                    if (blockling.getSkills().isBought(MiningSkills.HAMMER))
                     {
                         for (BlockPos surroundingPos : BlockUtil.getSurroundingBlockPositions(targetPos))
                         {
@@ -216,7 +234,7 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
                 return false;
             }
 
-            setPathTargetPos(pathToVein.getFirst(), pathToVein.getSecond());
+            setPathTargetPos(pathToVein.getKey(), pathToVein.getValue());
         }
 
         setTarget((BlockPos) veinBlockPositions.toArray()[veinBlockPositions.size() - 1]);
@@ -247,6 +265,13 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
         return oreWhitelist.isEntryWhitelisted(block);
     }
 
+    @Override
+    @Nonnull
+    protected GoalWhitelist getTargetWhitelist()
+    {
+        return oreWhitelist;
+    }
+
     @Nonnull
     @Override
     protected ToolType getToolType()
@@ -256,141 +281,178 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
 
     /**
      * Tries to find the nearest vein.
+     * The search runs over several ticks, so this returns false until it has finished.
      *
      * @return true if a vein was found.
      */
     private boolean tryFindVein()
     {
-        BlockPos blocklingBlockPos = blockling.blockPosition();
+        BlockPos veinRootPos = searchForTarget(GatherTargetIndex.Category.ORE, SEARCH_RADIUS_X, SEARCH_RADIUS_Y);
 
-        List<BlockPos> veinBlockPositions = new ArrayList<>();
-        List<BlockPos> testedBlockPositions = new ArrayList<>();
-
-        double closestVeinDistSq = Float.MAX_VALUE;
-
-        for (int i = -SEARCH_RADIUS_X; i <= SEARCH_RADIUS_X; i++)
+        if (veinRootPos == null || !isValidTarget(veinRootPos))
         {
-            for (int j = -SEARCH_RADIUS_Y; j <= SEARCH_RADIUS_Y; j++)
-            {
-                for (int k = -SEARCH_RADIUS_X; k <= SEARCH_RADIUS_X; k++)
-                {
-                    BlockPos testBlockPos = blocklingBlockPos.offset(i, j, k);
+            return false;
+        }
 
-                    if (testedBlockPositions.contains(testBlockPos))
-                    {
-                        continue;
-                    }
+        // The vein may have changed since the search tested it, so find it again.
+        long[] veinBlockPositionsToTest = findVeinFrom(veinRootPos);
 
-                    if (isValidTarget(testBlockPos))
-                    {
-                        List<BlockPos> veinBlockPositionsToTest = findVeinFrom(testBlockPos);
+        if (!VisibilityCache.get(world).canSeeAny(blockling, veinBlockPositionsToTest))
+        {
+            return false;
+        }
 
-                        boolean canSeeVein = false;
+        setVeinBlockPositions(veinBlockPositionsToTest);
 
-                        for (BlockPos veinBlockPos : veinBlockPositionsToTest)
-                        {
-                            if (!testedBlockPositions.contains(veinBlockPos))
-                            {
-                                testedBlockPositions.add(veinBlockPos);
-                            }
+        return true;
+    }
 
-                            if (!canSeeVein && EntityUtil.canSee(blockling, veinBlockPos))
-                            {
-                                canSeeVein = true;
-                            }
-                        }
+    @Override
+    protected boolean testCandidate(@Nonnull BlockPos candidate, @Nonnull LongPosSet testedBlockPositions)
+    {
+        if (!isValidTarget(candidate))
+        {
+            return false;
+        }
 
-                        if (!canSeeVein)
-                        {
-                            continue;
-                        }
+        long[] veinBlockPositionsToTest = findVeinFrom(candidate);
 
-                        for (BlockPos veinBlockPos : veinBlockPositionsToTest)
-                        {
-                            float distanceSq = (float) blockling.distanceToSqr(veinBlockPos.getX() + 0.5f, veinBlockPos.getY() + 0.5f, veinBlockPos.getZ() + 0.5f);
+        for (long veinBlockPos : veinBlockPositionsToTest)
+        {
+            testedBlockPositions.add(veinBlockPos);
+        }
 
-                            if (distanceSq < closestVeinDistSq)
-                            {
-                                closestVeinDistSq = distanceSq;
-                                veinBlockPositions = veinBlockPositionsToTest;
+        return VisibilityCache.get(world).canSeeAny(blockling, veinBlockPositionsToTest);
+    }
 
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
+    @Override
+    protected boolean testCandidate(@Nonnull BlockPos candidate, @Nonnull SearchSnapshot snapshot, @Nonnull LongPosSet testedBlockPositions)
+    {
+        if (!snapshot.isValidTarget(candidate))
+        {
+            return false;
         }
 
-        if (!veinBlockPositions.isEmpty())
-        {
-            this.veinBlockPositions.clear();
-            this.veinBlockPositions.addAll(veinBlockPositions);
+        // Runs on a worker thread, so use a new set and queue rather than the goal's.
+        long[] veinBlockPositionsToTest = findVeinFrom(candidate, snapshot::isValidTarget, new LongPosSet(MAX_VEIN_SIZE * 6), new LongPosQueue());
 
-            return true;
+        for (long veinBlockPos : veinBlockPositionsToTest)
+        {
+            testedBlockPositions.add(veinBlockPos);
         }
 
-        return false;
+        return snapshot.canSeeAny(veinBlockPositionsToTest);
+    }
+
+    /**
+     * Returns a vein from the given starting block pos.
+     * Uses a flood fill over packed positions so no block positions are allocated for the positions visited.
+     *
+     * @param startingBlockPos the starting block pos.
+     * @return the packed block positions in the vein (see {@link BlockPos#asLong()}), in the order they were found.
+     */
+    @Nonnull
+    private long[] findVeinFrom(@Nonnull BlockPos startingBlockPos)
+    {
+        return findVeinFrom(startingBlockPos, this::isValidTarget, veinVisitedBlockPositions, veinBlockPositionsToTest);
     }
 
     /**
      * Returns a vein from the given starting block pos.
      *
      * @param startingBlockPos the starting block pos.
-     * @return the list of block positions in the vein.
+     * @param isValidVeinPos the predicate used to test each position (the position passed in is mutable so should not be stored).
+     * @param veinVisitedBlockPositions the set used to track the positions visited (cleared before use).
+     * @param veinBlockPositionsToTest the queue used to track the positions to test (cleared before use).
+     * @return the packed block positions in the vein (see {@link BlockPos#asLong()}), in the order they were found.
      */
     @Nonnull
-    private List<BlockPos> findVeinFrom(@Nonnull BlockPos startingBlockPos)
+    private static long[] findVeinFrom(@Nonnull BlockPos startingBlockPos, @Nonnull Predicate<BlockPos> isValidVeinPos, @Nonnull LongPosSet veinVisitedBlockPositions, @Nonnull LongPosQueue veinBlockPositionsToTest)
     {
-        List<BlockPos> veinBlockPositionsToTest = new ArrayList<>();
-        List<BlockPos> veinBlockPositions = new ArrayList<>();
+        long[] veinBlockPositions = new long[MAX_VEIN_SIZE];
+        int veinSize = 0;
+
+        veinVisitedBlockPositions.clear();
+        veinBlockPositionsToTest.clear();
 
-        veinBlockPositionsToTest.add(startingBlockPos);
-        veinBlockPositions.add(startingBlockPos);
+        veinVisitedBlockPositions.add(startingBlockPos.asLong());
+        veinBlockPositionsToTest.add(startingBlockPos.asLong());
+        veinBlockPositions[veinSize++] = startingBlockPos.asLong();
 
-        while (!veinBlockPositionsToTest.isEmpty() && veinBlockPositions.size() < MAX_VEIN_SIZE)
+        BlockPos.Mutable surroundingPos = new BlockPos.Mutable();
+
+        while (!veinBlockPositionsToTest.isEmpty() && veinSize < MAX_VEIN_SIZE)
         {
-            BlockPos testBlockPos = veinBlockPositionsToTest.stream().findFirst().get();
+            long testBlockPos = veinBlockPositionsToTest.poll();
 
-            BlockPos[] surroundingBlockPositions = new BlockPos[]
-                    {
-                            testBlockPos.offset(-1, 0, 0),
-                            testBlockPos.offset(1, 0, 0),
-                            testBlockPos.offset(0, -1, 0),
-                            testBlockPos.offset(0, 1, 0),
-                            testBlockPos.offset(0, 0, -1),
-                            testBlockPos.offset(0, 0, 1),
-                    };
-
-            for (BlockPos surroundingPos : surroundingBlockPositions)
+            for (Direction direction : VEIN_DIRECTIONS)
             {
-                if (isValidTarget(surroundingPos))
+                long surroundingPosLong = BlockPos.offset(testBlockPos, direction);
+
+                if (veinVisitedBlockPositions.contains(surroundingPosLong))
                 {
-                    if (!veinBlockPositions.contains(surroundingPos))
+                    continue;
+                }
+
+                if (isValidVeinPos.test(surroundingPos.set(surroundingPosLong)))
+                {
+                    veinVisitedBlockPositions.add(surroundingPosLong);
+                    veinBlockPositionsToTest.add(surroundingPosLong);
+                    veinBlockPositions[veinSize++] = surroundingPosLong;
+
+                    if (veinSize >= MAX_VEIN_SIZE)
                     {
-                        veinBlockPositions.add(surroundingPos);
-                        veinBlockPositionsToTest.add(surroundingPos);
+                        break;
                     }
                 }
             }
-
-            veinBlockPositionsToTest.remove(testBlockPos);
         }
 
-        return veinBlockPositions;
+        return Arrays.copyOf(veinBlockPositions, veinSize);
     }
 
     /**
-     * Finds the first valid path to the vein, not necessarily the most optimal.
+     * Replaces the current vein with the given positions.
+     *
+     * @param packedBlockPositions the packed block positions in the vein.
+     */
+    private void setVeinBlockPositions(@Nonnull long[] packedBlockPositions)
+    {
+        veinBlockPositions.clear();
+
+        for (long packedBlockPos : packedBlockPositions)
+        {
+            veinBlockPositions.add(BlockPos.of(packedBlockPos));
+        }
+    }
+
+    /**
+     * Finds the cheapest path to any block in the vein using a single path search.
      *
      * @return the path target position and the path to the vein, or null if no path could be found.
      */
     @Nullable
     public Pair<BlockPos, Path> findPathToVein()
     {
+        List<BlockPos> pathTargetPositions = findPathTargetPositions();
+
+        return pathTargetPositions != null ? EntityUtil.createPathToAny(blockling, pathTargetPositions, getRangeSq()) : null;
+    }
+
+    /**
+     * Finds the vein positions worth pathing to, skipping any that are buried, bad or can't be reached.
+     *
+     * @return the positions, or null if there are none.
+     */
+    @Nullable
+    @Override
+    protected List<BlockPos> findPathTargetPositions()
+    {
+        List<BlockPos> pathTargetPositions = new ArrayList<>();
+
         for (BlockPos veinBlockPos : veinBlockPositions)
         {
-            if (BlockUtil.areAllAdjacentBlocksSolid(world, veinBlockPos))
+            if (BlockUtil.areAllAdjacentBlocksSolid(loadedBlocks, veinBlockPos))
             {
                 continue;
             }
@@ -400,27 +462,37 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
                 continue;
             }
 
-            Path path = EntityUtil.createPathTo(blockling, veinBlockPos, getRangeSq());
+            pathTargetPositions.add(veinBlockPos);
+        }
 
-            if (path != null)
-            {
-                return new Pair<>(veinBlockPos, path);
-            }
+        if (pathTargetPositions.isEmpty() || !ReachabilityRegions.get(world).canReachAny(blockling, pathTargetPositions, getRangeSq()))
+        {
+            return null;
         }
 
-        return null;
+        return pathTargetPositions;
     }
 
     /**
      * Sets the root vein position to the given block pos.
-     * Will then recalculate the vein.
+     * Will then recalculate the vein, or just reorder it if the block pos is already part of it.
      *
      * @param blockPos the block pos to use as the vein root.
      */
     public void changeVeinRootTo(@Nonnull BlockPos blockPos)
     {
-        veinBlockPositions.clear();
-        veinBlockPositions.addAll(findVeinFrom(blockPos));
+        // If the new root is already in the vein, reorder the vein from it rather than finding it again from the world.
+        if (veinBlockPositions.contains(blockPos))
+        {
+            LongPosSet currentVeinBlockPositions = new LongPosSet(veinBlockPositions.size());
+            veinBlockPositions.forEach(veinBlockPos -> currentVeinBlockPositions.add(veinBlockPos.asLong()));
+
+            setVeinBlockPositions(findVeinFrom(blockPos, veinBlockPos -> currentVeinBlockPositions.contains(veinBlockPos.asLong()), veinVisitedBlockPositions, veinBlockPositionsToTest));
+        }
+        else
+        {
+            setVeinBlockPositions(findVeinFrom(blockPos));
+        }
     }
 
     @Override
@@ -428,11 +500,19 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
     {
         if (force)
         {
-            Pair<BlockPos, Path> result = findPathToVein();
+            List<BlockPos> pathTargetPositions = findPathTargetPositions();
+
+            // Moving on to the next block in the vein usually only takes a few steps, so try to reuse the current path first.
+            if (pathTargetPositions != null && tryRepairPath(pathTargetPositions))
+            {
+                return true;
+            }
+
+            Pair<BlockPos, Path> result = pathTargetPositions != null ? EntityUtil.createPathToAny(blockling, pathTargetPositions, getRangeSq()) : null;
 
             if (result != null)
             {
-                setPathTargetPos(result.getFirst(), result.getSecond());
+                setPathTargetPos(result.getKey(), result.getValue());
             }
             else
             {
@@ -444,39 +524,17 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
             return true;
         }
 
-        // Try to improve our path each recalc by testing different blocks in the vein
-        for (BlockPos veinBlockPos : veinBlockPositions)
-        {
-            if (pathTargetPositionsTested.contains(veinBlockPos))
-            {
-                continue;
-            }
-
-            pathTargetPositionsTested.add(veinBlockPos);
-
-            if (BlockUtil.areAllAdjacentBlocksSolid(world, veinBlockPos))
-            {
-                continue;
-            }
-
-            Path path = EntityUtil.createPathTo(blockling, veinBlockPos, getRangeSq());
-
-            if (path != null)
-            {
-                if (path.getDistToTarget() < this.path.getDistToTarget())
-                {
-                    setPathTargetPos(veinBlockPos, path);
+        // Try to improve our path each recalc as the cheapest block in the vein to reach changes as the blockling moves
+        Pair<BlockPos, Path> result = findPathToVein();
 
-                    return true;
-                }
-            }
+        if (result != null && (!hasPath() || result.getValue().getDistToTarget() < path.getDistToTarget()))
+        {
+            setPathTargetPos(result.getKey(), result.getValue());
 
-            return hasPath();
+            return true;
         }
 
-        pathTargetPositionsTested.clear();
-
-        return false;
+        return hasPath();
     }
 
     @Override
@@ -496,6 +554,14 @@ public class BlocklingMineGoal extends BlocklingGatherGoal
         }
     }
 
+    @Override
+    public void collectDebugInfo(@Nonnull BlocklingDebugInfo info)
+    {
+        super.collectDebugInfo(info);
+
+        BlocklingDebugInfo.addCapped(info.chosenBlocks, veinBlockPositions);
+    }
+
     @Override
     public float getRangeSq()
     {
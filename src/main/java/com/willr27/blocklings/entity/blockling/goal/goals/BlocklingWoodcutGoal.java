@@ -1,5 +1,6 @@
 package com.willr27.blocklings.entity.blockling.goal.goals;
 
+import com.willr27.blocklings.debug.BlocklingDebugInfo;
 import com.willr27.blocklings.entity.blockling.BlocklingEntity;
 import com.willr27.blocklings.entity.blockling.BlocklingHand;
 import com.willr27.blocklings.entity.blockling.skill.skills.WoodcuttingSkills;
@@ -7,13 +8,15 @@ import com.willr27.blocklings.entity.blockling.task.BlocklingTasks;
 import com.willr27.blocklings.entity.blockling.whitelist.GoalWhitelist;
 import com.willr27.blocklings.entity.blockling.whitelist.Whitelist;
 import com.willr27.blocklings.util.*;
+import com.willr27.blocklings.world.GatherTargetIndex;
+import com.willr27.blocklings.world.ReachabilityRegions;
+import com.willr27.blocklings.world.VisibilityCache;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.LeavesBlock;
 import net.minecraft.item.ItemStack;
 import net.minecraft.pathfinding.Path;
 import net.minecraft.util.math.BlockPos;
-import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
@@ -52,12 +55,6 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
     @Nonnull
     public final GoalWhitelist logWhitelist;
 
-    /**
-     * The set of positions we have attempted to use as path targets so far.
-     */
-    @Nonnull
-    private final Set<BlockPos> pathTargetPositionsTested = new HashSet<>();
-
     /**
      * @param id the id associated with the owning task of this goal.
      * @param blockling the blockling the goal is assigned to.
@@ -68,7 +65,7 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
         super(id, blockling, tasks);
 
         logWhitelist = new GoalWhitelist("fbfbfd44-c1b0-4420-824a-270b34c866f7", "logs", Whitelist.Type.BLOCK, this);
-        logWhitelist.setIsUnlocked(blockling.getSkills().getSkill(WoodcuttingSkills.WHITELIST).isBought(), false);
+        logWhitelist.setIsUnlocked(blockling.getSkills().isBought(WoodcuttingSkills.WHITELIST), false);
         BlockUtil.TREES.get().forEach(tree -> logWhitelist.put(tree.log.getRegistryName(), true));
         whitelists.add(logWhitelist);
 
@@ -140,12 +137,12 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
                         blockling.dropItemStack(stack);
                     }
 
-                    if (ToolUtil.damageTool(mainStack, blockling, mainCanHarvest ? blockling.getSkills().getSkill(WoodcuttingSkills.HASTY).isBought() ? 2 : 1 : 0))
+                    if (ToolUtil.damageTool(mainStack, blockling, mainCanHarvest ? blockling.getSkills().isBought(WoodcuttingSkills.HASTY) ? 2 : 1 : 0))
                     {
                         mainStack.shrink(1);
                     }
 
-                    if (ToolUtil.damageTool(offStack, blockling, offCanHarvest ? blockling.getSkills().getSkill(WoodcuttingSkills.HASTY).isBought() ? 2 : 1 : 0))
+                    if (ToolUtil.damageTool(offStack, blockling, offCanHarvest ? blockling.getSkills().isBought(WoodcuttingSkills.HASTY) ? 2 : 1 : 0))
                     {
                         offStack.shrink(1);
                     }
@@ -155,13 +152,13 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
                     world.destroyBlock(targetPos, false);
                     world.destroyBlockProgress(blockling.getId(), targetPos, -1);
 
-                    if (blockling.getSkills().getSkill(WoodcuttingSkills.LEAF_BLOWER).isBought())
+                    if (blockling.getSkills().isBought(WoodcuttingSkills.LEAF_BLOWER))
                     {
                         for (BlockPos surroundingPos : BlockUtil.getSurroundingBlockPositions(targetPos))
                         {
                             if (isValidLeavesPos(surroundingPos))
                             {
-                                if (blockling.getSkills().getSkill(WoodcuttingSkills.TREE_SURGEON).isBought())
+                                if (blockling.getSkills().isBought(WoodcuttingSkills.TREE_SURGEON))
                                 {
                                     for (ItemStack stack : DropUtil.getDrops(DropUtil.Context.WOODCUTTING, blockling, surroundingPos, mainCanHarvest ? mainStack : ItemStack.EMPTY, offCanHarvest ? offStack : ItemStack.EMPTY))
                                     {
@@ -175,7 +172,7 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
                         }
                     }
 
-                    if (blockling.getSkills().getSkill(WoodcuttingSkills.LUMBER_AXE).isBought())
+                    if (blockling.getSkills().isBought(WoodcuttingSkills.LUMBER_AXE))
                     {
                         for (BlockPos surroundingPos : BlockUtil.getSurroundingBlockPositions(targetPos))
                         {
@@ -191,7 +188,7 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
 
                                 world.destroyBlock(surroundingPos, false);
 
-                                if (blockling.getSkills().getSkill(WoodcuttingSkills.REPLANTER).isBought())
+                                if (blockling.getSkills().isBought(WoodcuttingSkills.REPLANTER))
                                 {
                                     Block saplingBlock = BlockUtil.getSaplingFromLog(surroundingBlock);
 
@@ -214,7 +211,7 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
                         }
                     }
 
-                    if (blockling.getSkills().getSkill(WoodcuttingSkills.REPLANTER).isBought())
+                    if (blockling.getSkills().isBought(WoodcuttingSkills.REPLANTER))
                     {
                         Block saplingBlock = BlockUtil.getSaplingFromLog(targetBlock);
 
@@ -317,6 +314,13 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
         return logWhitelist.isEntryWhitelisted(block);
     }
 
+    @Override
+    @Nonnull
+    protected GoalWhitelist getTargetWhitelist()
+    {
+        return logWhitelist;
+    }
+
     @Nonnull
     @Override
     protected ToolType getToolType()
@@ -326,101 +330,100 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
 
     /**
      * Tries to find the nearest tree.
+     * The search runs over several ticks, so this returns false until it has finished.
      *
      * @return true if a tree was found.
      */
     private boolean tryFindTree()
     {
-        BlockPos blocklingBlockPos = blockling.blockPosition();
+        BlockPos treeRootPos = searchForTarget(GatherTargetIndex.Category.LOG, SEARCH_RADIUS_X, SEARCH_RADIUS_Y);
 
-        WorldUtil.Tree tree = new WorldUtil.Tree();
-        List<BlockPos> testedBlockPositions = new ArrayList<>();
+        if (treeRootPos == null || !isValidTarget(treeRootPos))
+        {
+            return false;
+        }
 
-        double closestTreeDistSq = Float.MAX_VALUE;
+        // The tree may have changed since the search tested it, so find it again.
+        WorldUtil.Tree treeToTest = findTreeFrom(treeRootPos);
 
-        for (int i = -SEARCH_RADIUS_X; i <= SEARCH_RADIUS_X; i++)
+        if (!treeToTest.isValid() || !canSeeTree(treeToTest))
         {
-            for (int j = -SEARCH_RADIUS_Y; j <= SEARCH_RADIUS_Y; j++)
-            {
-                for (int k = -SEARCH_RADIUS_X; k <= SEARCH_RADIUS_X; k++)
-                {
-                    BlockPos testBlockPos = blocklingBlockPos.offset(i, j, k);
+            return false;
+        }
 
-                    if (testedBlockPositions.contains(testBlockPos))
-                    {
-                        continue;
-                    }
+        tree.logs.clear();
+        tree.leaves.clear();
+        tree.logs.addAll(treeToTest.logs);
+        tree.leaves.addAll(treeToTest.leaves);
 
-                    if (isValidTarget(testBlockPos))
-                    {
-                        WorldUtil.Tree treeToTest = findTreeFrom(testBlockPos);
+        return true;
+    }
 
-                        if (!treeToTest.isValid())
-                        {
-                            continue;
-                        }
+    @Override
+    protected boolean testCandidate(@Nonnull BlockPos candidate, @Nonnull LongPosSet testedBlockPositions)
+    {
+        if (!isValidTarget(candidate))
+        {
+            return false;
+        }
 
-                        boolean canSeeTree = false;
+        WorldUtil.Tree treeToTest = findTreeFrom(candidate);
 
-                        for (BlockPos logBlockPos : treeToTest.logs)
-                        {
-                            if (!testedBlockPositions.contains(logBlockPos))
-                            {
-                                testedBlockPositions.add(logBlockPos);
-                            }
-
-                            if (!canSeeTree && EntityUtil.canSee(blockling, logBlockPos))
-                            {
-                                canSeeTree = true;
-                            }
-                        }
+        if (!treeToTest.isValid())
+        {
+            return false;
+        }
 
-                        for (BlockPos leafBlockPos : treeToTest.leaves)
-                        {
-                            if (!testedBlockPositions.contains(leafBlockPos))
-                            {
-                                testedBlockPositions.add(leafBlockPos);
-                            }
+        for (BlockPos logBlockPos : treeToTest.logs)
+        {
+            testedBlockPositions.add(logBlockPos.asLong());
+        }
 
-                            if (!canSeeTree && EntityUtil.canSee(blockling, leafBlockPos))
-                            {
-                                canSeeTree = true;
-                            }
-                        }
+        for (BlockPos leafBlockPos : treeToTest.leaves)
+        {
+            testedBlockPositions.add(leafBlockPos.asLong());
+        }
 
-                        if (!canSeeTree)
-                        {
-                            continue;
-                        }
+        return canSeeTree(treeToTest);
+    }
 
-                        for (BlockPos logBlockPos : treeToTest.logs)
-                        {
-                            float distanceSq = (float) blockling.distanceToSqr(logBlockPos.getX() + 0.5f, logBlockPos.getY() + 0.5f, logBlockPos.getZ() + 0.5f);
+    @Override
+    protected boolean testCandidate(@Nonnull BlockPos candidate, @Nonnull SearchSnapshot snapshot, @Nonnull LongPosSet testedBlockPositions)
+    {
+        if (!snapshot.isValidTarget(candidate))
+        {
+            return false;
+        }
 
-                            if (distanceSq < closestTreeDistSq)
-                            {
-                                closestTreeDistSq = distanceSq;
-                                tree = treeToTest;
+        WorldUtil.Tree treeToTest = WorldUtil.findTreeFromPos(snapshot.blocks, candidate, MAX_TREE_LOGS_SIZE, snapshot::isValidTarget, blockPos -> isValidLeaves(snapshot.blocks.getBlockState(blockPos)));
 
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
+        if (!treeToTest.isValid())
+        {
+            return false;
         }
 
-        if (!tree.logs.isEmpty())
+        for (BlockPos logBlockPos : treeToTest.logs)
         {
-            this.tree.logs.clear();
-            this.tree.leaves.clear();
-            this.tree.logs.addAll(tree.logs);
-            this.tree.leaves.addAll(tree.leaves);
+            testedBlockPositions.add(logBlockPos.asLong());
+        }
 
-            return true;
+        for (BlockPos leafBlockPos : treeToTest.leaves)
+        {
+            testedBlockPositions.add(leafBlockPos.asLong());
         }
 
-        return false;
+        return snapshot.canSeeAny(treeToTest.logs) || snapshot.canSeeAny(treeToTest.leaves);
+    }
+
+    /**
+     * @param tree the tree to test.
+     * @return true if the blockling can see any of the tree's logs or leaves.
+     */
+    private boolean canSeeTree(@Nonnull WorldUtil.Tree tree)
+    {
+        VisibilityCache visibilityCache = VisibilityCache.get(world);
+
+        return visibilityCache.canSeeAny(blockling, tree.logs) || visibilityCache.canSeeAny(blockling, tree.leaves);
     }
 
     /**
@@ -432,20 +435,36 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
     @Nonnull
     private WorldUtil.Tree findTreeFrom(@Nonnull BlockPos blockPos)
     {
-        return WorldUtil.findTreeFromPos(world, blockPos, MAX_TREE_LOGS_SIZE, this::isValidTarget, this::isValidLeavesPos);
+        return WorldUtil.findTreeFromPos(loadedBlocks, blockPos, MAX_TREE_LOGS_SIZE, this::isValidTarget, this::isValidLeavesPos);
     }
 
     /**
-     * Finds the first valid path to the tree, not necessarily the most optimal.
+     * Finds the cheapest path to any log in the tree using a single path search.
      *
      * @return the path target position and the path to the tree, or null if no path could be found.
      */
     @Nullable
     public Pair<BlockPos, Path> findPathToTree()
     {
+        List<BlockPos> pathTargetPositions = findPathTargetPositions();
+
+        return pathTargetPositions != null ? EntityUtil.createPathToAny(blockling, pathTargetPositions, getRangeSq()) : null;
+    }
+
+    /**
+     * Finds the log positions worth pathing to, skipping any that are buried or can't be reached.
+     *
+     * @return the positions, or null if there are none.
+     */
+    @Nullable
+    @Override
+    protected List<BlockPos> findPathTargetPositions()
+    {
+        List<BlockPos> pathTargetPositions = new ArrayList<>();
+
         for (BlockPos logBlockPos : tree.logs)
         {
-            if (BlockUtil.areAllAdjacentBlocksSolid(world, logBlockPos))
+            if (BlockUtil.areAllAdjacentBlocksSolid(loadedBlocks, logBlockPos))
             {
                 continue;
             }
@@ -455,25 +474,36 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
 //                continue;
 //            }
 
-            Path path = EntityUtil.createPathTo(blockling, logBlockPos, getRangeSq());
+            pathTargetPositions.add(logBlockPos);
+        }
 
-            if (path != null)
-            {
-                return new MutablePair<>(logBlockPos, path);
-            }
+        if (pathTargetPositions.isEmpty() || !ReachabilityRegions.get(world).canReachAny(blockling, pathTargetPositions, getRangeSq()))
+        {
+            return null;
         }
 
-        return null;
+        return pathTargetPositions;
     }
 
     /**
      * Sets the tree's root position to the given block pos.
-     * Will then recalculate the tree.
+     * Will then recalculate the tree, or just reorder its logs if the block pos is already one of them.
      *
      * @param blockPos the block pos to use as the tree's root.
      */
     public void changeTreeRootTo(@Nonnull BlockPos blockPos)
     {
+        // If the new root is already in the tree, reorder the logs from it rather than finding the tree again from the world.
+        if (tree.logs.contains(blockPos))
+        {
+            List<BlockPos> logs = WorldUtil.orderLogsFrom(blockPos, tree.logs);
+
+            tree.logs.clear();
+            tree.logs.addAll(logs);
+
+            return;
+        }
+
         tree.logs.clear();
         tree.leaves.clear();
 
@@ -489,7 +519,7 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
      */
     private boolean isValidLeavesPos(@Nonnull BlockPos blockPos)
     {
-        return isValidLeaves(world.getBlockState(blockPos));
+        return isValidLeaves(loadedBlocks.getBlockState(blockPos));
     }
 
     /**
@@ -515,7 +545,15 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
     {
         if (force)
         {
-            Pair<BlockPos, Path> result = findPathToTree();
+            List<BlockPos> pathTargetPositions = findPathTargetPositions();
+
+            // Moving on to the next log in the tree usually only takes a few steps, so try to reuse the current path first.
+            if (pathTargetPositions != null && tryRepairPath(pathTargetPositions))
+            {
+                return true;
+            }
+
+            Pair<BlockPos, Path> result = pathTargetPositions != null ? EntityUtil.createPathToAny(blockling, pathTargetPositions, getRangeSq()) : null;
 
             if (result != null)
             {
@@ -531,39 +569,17 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
             return true;
         }
 
-        // Try to improve our path each recalc by testing different logs in the tree
-        for (BlockPos logBlockPos : tree.logs)
-        {
-            if (pathTargetPositionsTested.contains(logBlockPos))
-            {
-                continue;
-            }
-
-            pathTargetPositionsTested.add(logBlockPos);
-
-            if (BlockUtil.areAllAdjacentBlocksSolid(world, logBlockPos))
-            {
-                continue;
-            }
+        // Try to improve our path each recalc as the cheapest log in the tree to reach changes as the blockling moves
+        Pair<BlockPos, Path> result = findPathToTree();
 
-            Path path = EntityUtil.createPathTo(blockling, logBlockPos, getRangeSq());
-
-            if (path != null)
-            {
-                if (path.getDistToTarget() < this.path.getDistToTarget())
-                {
-                    setPathTargetPos(logBlockPos, path);
-
-                    return true;
-                }
-            }
+        if (result != null && (!hasPath() || result.getValue().getDistToTarget() < path.getDistToTarget()))
+        {
+            setPathTargetPos(result.getKey(), result.getValue());
 
-            return hasPath();
+            return true;
         }
 
-        pathTargetPositionsTested.clear();
-
-        return false;
+        return hasPath();
     }
 
     @Override
@@ -583,6 +599,14 @@ public class BlocklingWoodcutGoal extends BlocklingGatherGoal
         }
     }
 
+    @Override
+    public void collectDebugInfo(@Nonnull BlocklingDebugInfo info)
+    {
+        super.collectDebugInfo(info);
+
+        BlocklingDebugInfo.addCapped(info.chosenBlocks, tree.logs);
+    }
+
     @Override
     public float getRangeSq()
     {
@@ -12,7 +12,9 @@ import net.minecraft.network.PacketBuffer;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -65,6 +67,24 @@ public class BlocklingSkills implements IReadWriteNBT
     @Nonnull
     private final List<SkillGroup> skillGroups = new ArrayList<>();
 
+    /**
+     * The skills across all the groups, indexed by the index of their skill info (see {@link SkillInfo#index}).
+     */
+    @Nonnull
+    private Skill[] skillsByIndex = new Skill[0];
+
+    /**
+     * The indexes of the skill infos of the skills that are bought.
+     */
+    @Nonnull
+    private final BitSet boughtSkills = new BitSet();
+
+    /**
+     * The bought skills that need to be ticked (see {@link SkillInfo#isTicked}).
+     */
+    @Nonnull
+    private Skill[] tickedSkills = new Skill[0];
+
     /**
      * @param blockling the blockling.
      */
@@ -82,25 +102,80 @@ public class BlocklingSkills implements IReadWriteNBT
     {
         skillGroups.clear();
 
-        SkillGroup general = new SkillGroup(blockling, Groups.GENERAL);
+        SkillGroup general = new SkillGroup(blockling, this, Groups.GENERAL);
         general.addSkills(GeneralSkills.SKILLS.stream().map(createSkill -> createSkill.apply(general)).collect(Collectors.toList()));
         skillGroups.add(general);
 
-        SkillGroup combat = new SkillGroup(blockling, Groups.COMBAT);
+        SkillGroup combat = new SkillGroup(blockling, this, Groups.COMBAT);
         combat.addSkills(CombatSkills.SKILLS.stream().map(createSkill -> createSkill.apply(combat)).collect(Collectors.toList()));
         skillGroups.add(combat);
 
-        SkillGroup mining = new SkillGroup(blockling, Groups.MINING);
+        SkillGroup mining = new SkillGroup(blockling, this, Groups.MINING);
         mining.addSkills(MiningSkills.SKILLS.stream().map(createSkill -> createSkill.apply(mining)).collect(Collectors.toList()));
         skillGroups.add(mining);
 
-        SkillGroup woodcutting = new SkillGroup(blockling, Groups.WOODCUTTING);
+        SkillGroup woodcutting = new SkillGroup(blockling, this, Groups.WOODCUTTING);
         woodcutting.addSkills(WoodcuttingSkills.SKILLS.stream().map(createSkill -> createSkill.apply(woodcutting)).collect(Collectors.toList()));
         skillGroups.add(woodcutting);
 
-        SkillGroup farming = new SkillGroup(blockling, Groups.FARMING);
+        SkillGroup farming = new SkillGroup(blockling, this, Groups.FARMING);
         farming.addSkills(FarmingSkills.SKILLS.stream().map(createSkill -> createSkill.apply(farming)).collect(Collectors.toList()));
         skillGroups.add(farming);
+
+        skillsByIndex = new Skill[SkillInfo.count()];
+        boughtSkills.clear();
+        tickedSkills = new Skill[0];
+
+        for (SkillGroup skillGroup : skillGroups)
+        {
+            for (Skill skill : skillGroup.getSkills())
+            {
+                skillsByIndex[skill.info.index] = skill;
+                onStateChanged(skill);
+            }
+        }
+    }
+
+    /**
+     * Called when the state of the given skill changes, to keep the bought and ticked skills up to date.
+     *
+     * @param skill the skill.
+     */
+    void onStateChanged(@Nonnull Skill skill)
+    {
+        boolean isBought = skill.isBought();
+
+        if (boughtSkills.get(skill.info.index) == isBought)
+        {
+            return;
+        }
+
+        boughtSkills.set(skill.info.index, isBought);
+
+        if (skill.info.isTicked)
+        {
+            updateTickedSkills();
+        }
+    }
+
+    /**
+     * Rebuilds the bought skills that need to be ticked.
+     */
+    private void updateTickedSkills()
+    {
+        List<Skill> skills = new ArrayList<>();
+
+        for (int index = boughtSkills.nextSetBit(0); index >= 0; index = boughtSkills.nextSetBit(index + 1))
+        {
+            Skill skill = skillsByIndex[index];
+
+            if (skill != null && skill.info.isTicked)
+            {
+                skills.add(skill);
+            }
+        }
+
+        tickedSkills = skills.toArray(new Skill[0]);
     }
 
     @Override
@@ -188,9 +263,9 @@ public class BlocklingSkills implements IReadWriteNBT
      */
     public void tick()
     {
-        for (SkillGroup skillGroup : skillGroups)
+        for (Skill skill : tickedSkills)
         {
-            skillGroup.getSkills().stream().filter(Skill::isBought).forEach(skill -> skill.info.tick(skill));
+            skill.info.tick(skill);
         }
     }
 
@@ -200,7 +275,7 @@ public class BlocklingSkills implements IReadWriteNBT
     @Nonnull
     public SkillGroup findGroup(@Nonnull SkillInfo skillInfo)
     {
-        return skillGroups.stream().filter(group -> group.getSkills().stream().filter(skill -> skill.info == skillInfo).findFirst().orElse(null) != null).findFirst().get();
+        return getSkill(skillInfo).group;
     }
 
     /**
@@ -228,6 +303,24 @@ public class BlocklingSkills implements IReadWriteNBT
     @Nonnull
     public Skill getSkill(@Nonnull SkillInfo skillInfo)
     {
-        return findGroup(skillInfo).getSkill(skillInfo);
+        Skill skill = skillInfo.index < skillsByIndex.length ? skillsByIndex[skillInfo.index] : null;
+
+        if (skill == null)
+        {
+            throw new NoSuchElementException("No skill exists for the skill info: " + skillInfo.id);
+        }
+
+        return skill;
+    }
+
+    /**
+     * Checks whether the skill for the given skill info is bought, without searching for or allocating anything.
+     *
+     * @param skillInfo the skill info.
+     * @return true if the skill for the given skill info is bought.
+     */
+    public boolean isBought(@Nonnull SkillInfo skillInfo)
+    {
+        return boughtSkills.get(skillInfo.index);
     }
 }
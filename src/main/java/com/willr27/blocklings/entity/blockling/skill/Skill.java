@@ -167,6 +167,8 @@ public class Skill
     {
         this.state = state;
 
+        group.blocklingSkills.onStateChanged(this);
+
         if (sync)
         {
             new SkillStateMessage(blockling, this).sync();
@@ -21,6 +21,12 @@ public class SkillGroup
     @Nonnull
     public final BlocklingEntity blockling;
 
+    /**
+     * The blockling's skills the group belongs to.
+     */
+    @Nonnull
+    public final BlocklingSkills blocklingSkills;
+
     /**
      * The skill group's info.
      */
@@ -35,11 +41,13 @@ public class SkillGroup
 
     /**
      * @param blockling the blockling.
+     * @param blocklingSkills the blockling's skills the group belongs to.
      * @param info the group's info.
      */
-    public SkillGroup(@Nonnull BlocklingEntity blockling, @Nonnull SkillGroupInfo info)
+    public SkillGroup(@Nonnull BlocklingEntity blockling, @Nonnull BlocklingSkills blocklingSkills, @Nonnull SkillGroupInfo info)
     {
         this.blockling = blockling;
+        this.blocklingSkills = blocklingSkills;
         this.info = info;
     }
 
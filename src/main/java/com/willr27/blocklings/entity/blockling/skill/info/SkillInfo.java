@@ -6,12 +6,38 @@ import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A container for all the info for a skill.
  */
 public class SkillInfo
 {
+    /**
+     * The index to give the next skill info created.
+     */
+    @Nonnull
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    /**
+     * @return the number of skill infos created so far, which is one more than the highest index.
+     */
+    public static int count()
+    {
+        return NEXT_INDEX.get();
+    }
+
+    /**
+     * The skill type's index, given in the order skill infos are created.
+     * Used to look up a blockling's skills by position rather than searching for them.
+     */
+    public final int index;
+
+    /**
+     * Whether the skill type overrides {@link #tick(Skill)}, so skills that do nothing each tick can be skipped.
+     */
+    public final boolean isTicked;
+
     /**
      * The skill type's id.
      */
@@ -51,11 +77,28 @@ public class SkillInfo
      */
     public SkillInfo(@Nonnull String id, @Nonnull SkillGeneralInfo generalInfo, @Nonnull SkillDefaultsInfo defaultsInfo, @Nonnull SkillRequirementsInfo requirements, @Nonnull SkillGuiInfo guiInfo)
     {
+        this.index = NEXT_INDEX.getAndIncrement();
         this.id = UUID.fromString(id);
         this.general = generalInfo;
         this.defaults = defaultsInfo;
         this.requirements = requirements;
         this.gui = guiInfo;
+        this.isTicked = overridesTick();
+    }
+
+    /**
+     * @return true if the class of the skill info overrides {@link #tick(Skill)}.
+     */
+    private boolean overridesTick()
+    {
+        try
+        {
+            return getClass().getMethod("tick", Skill.class).getDeclaringClass() != SkillInfo.class;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return true;
+        }
     }
 
     /**
@@ -1,22 +1,39 @@
 package com.willr27.blocklings.event;
 
 import com.willr27.blocklings.Blocklings;
+import com.willr27.blocklings.debug.BlocklingDebugChannel;
 import com.willr27.blocklings.entity.blockling.BlocklingEntity;
 import com.willr27.blocklings.entity.blockling.BlocklingType;
 import com.willr27.blocklings.entity.blockling.skill.skills.CombatSkills;
 import com.willr27.blocklings.item.BlocklingWhistleItem;
 import com.willr27.blocklings.util.EntityUtil;
 import com.willr27.blocklings.util.ToolUtil;
+import com.willr27.blocklings.world.AuraService;
+import com.willr27.blocklings.world.FollowFlowFields;
+import com.willr27.blocklings.world.GatherTargetIndex;
+import com.willr27.blocklings.world.PathCache;
+import com.willr27.blocklings.world.PathRecalcCoordinator;
+import com.willr27.blocklings.world.PathService;
+import com.willr27.blocklings.world.ReachabilityRegions;
+import com.willr27.blocklings.world.ScanScheduler;
+import com.willr27.blocklings.world.TreeRegistry;
+import com.willr27.blocklings.world.VisibilityCache;
+import net.minecraft.block.Blocks;
 import net.minecraft.entity.EntitySize;
 import net.minecraft.entity.item.ItemEntity;
 import net.minecraft.entity.monster.MonsterEntity;
 import net.minecraft.entity.passive.AnimalEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.world.World;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.EntityEvent;
 import net.minecraftforge.event.entity.living.LivingDropsEvent;
 import net.minecraftforge.event.entity.living.LootingLevelEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
@@ -42,6 +59,118 @@ public class ForgeEventBusEvents
         BlocklingWhistleItem.BLOCKLINGS_TO_WHISTLES.clear();
     }
 
+    /**
+     * Handles any cleanup that needs to take place when the world unloads.
+     */
+    @SubscribeEvent
+    public static void onWorldUnload(@Nonnull WorldEvent.Unload event)
+    {
+        GatherTargetIndex.onWorldUnload(event.getWorld());
+        VisibilityCache.onWorldUnload(event.getWorld());
+        ScanScheduler.onWorldUnload(event.getWorld());
+        TreeRegistry.onWorldUnload(event.getWorld());
+        PathCache.onWorldUnload(event.getWorld());
+        PathRecalcCoordinator.onWorldUnload(event.getWorld());
+        FollowFlowFields.onWorldUnload(event.getWorld());
+        ReachabilityRegions.onWorldUnload(event.getWorld());
+        PathService.onWorldUnload(event.getWorld());
+        BlocklingDebugChannel.onWorldUnload(event.getWorld());
+        AuraService.onWorldUnload(event.getWorld());
+    }
+
+    /**
+     * Runs any blockling block searches scheduled for the world, applies blockling auras and streams debug info to any subscribed operators.
+     */
+    @SubscribeEvent
+    public static void onWorldTick(@Nonnull TickEvent.WorldTickEvent event)
+    {
+        if (event.phase == TickEvent.Phase.END && !event.world.isClientSide)
+        {
+            ScanScheduler.onWorldTick(event.world);
+            AuraService.onWorldTick(event.world);
+            BlocklingDebugChannel.onWorldTick(event.world);
+        }
+    }
+
+    /**
+     * Removes any debug subscription the player had when they log out.
+     */
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(@Nonnull PlayerEvent.PlayerLoggedOutEvent event)
+    {
+        BlocklingDebugChannel.onPlayerLoggedOut(event.getPlayer());
+    }
+
+    /**
+     * Keeps the gather target index, visibility cache, tree registry and path cache up to date when a block is broken.
+     */
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockBreak(@Nonnull BlockEvent.BreakEvent event)
+    {
+        GatherTargetIndex.onBlockChanged(event.getWorld(), event.getPos(), Blocks.AIR.defaultBlockState());
+        VisibilityCache.onBlockChanged(event.getWorld(), event.getPos());
+        TreeRegistry.onBlockChanged(event.getWorld(), event.getPos(), Blocks.AIR.defaultBlockState());
+        PathCache.onBlockChanged(event.getWorld(), event.getPos());
+        ReachabilityRegions.onBlockChanged(event.getWorld(), event.getPos());
+        PathService.onBlockChanged(event.getWorld(), event.getPos());
+    }
+
+    /**
+     * Keeps the gather target index, visibility cache, tree registry and path cache up to date when a block is placed.
+     */
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockPlace(@Nonnull BlockEvent.EntityPlaceEvent event)
+    {
+        GatherTargetIndex.onBlockChanged(event.getWorld(), event.getPos(), event.getPlacedBlock());
+        VisibilityCache.onBlockChanged(event.getWorld(), event.getPos());
+        TreeRegistry.onBlockChanged(event.getWorld(), event.getPos(), event.getPlacedBlock());
+        PathCache.onBlockChanged(event.getWorld(), event.getPos());
+        ReachabilityRegions.onBlockChanged(event.getWorld(), event.getPos());
+        PathService.onBlockChanged(event.getWorld(), event.getPos());
+    }
+
+    /**
+     * Keeps the gather target index, visibility cache, tree registry and path cache up to date when a block changes and notifies its neighbours.
+     */
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onNeighborNotify(@Nonnull BlockEvent.NeighborNotifyEvent event)
+    {
+        GatherTargetIndex.onBlockChanged(event.getWorld(), event.getPos(), event.getState());
+        VisibilityCache.onBlockChanged(event.getWorld(), event.getPos());
+        TreeRegistry.onBlockChanged(event.getWorld(), event.getPos(), event.getState());
+        PathCache.onBlockChanged(event.getWorld(), event.getPos());
+        ReachabilityRegions.onBlockChanged(event.getWorld(), event.getPos());
+        PathService.onBlockChanged(event.getWorld(), event.getPos());
+    }
+
+    /**
+     * Discards any indexed gather targets, cached visibility, registered trees and cached paths for a chunk when it loads, as it may have changed while unloaded.
+     */
+    @SubscribeEvent
+    public static void onChunkLoad(@Nonnull ChunkEvent.Load event)
+    {
+        GatherTargetIndex.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        VisibilityCache.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        TreeRegistry.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        PathCache.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        ReachabilityRegions.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        PathService.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+    }
+
+    /**
+     * Discards any indexed gather targets, cached visibility, registered trees and cached paths for a chunk when it unloads.
+     */
+    @SubscribeEvent
+    public static void onChunkUnload(@Nonnull ChunkEvent.Unload event)
+    {
+        GatherTargetIndex.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        VisibilityCache.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        TreeRegistry.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        PathCache.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        ReachabilityRegions.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+        PathService.onChunkChanged(event.getWorld(), event.getChunk().getPos());
+    }
+
     /**
      * Handles changing the scale/hitbox of a blockling.
      */
@@ -87,17 +216,17 @@ public class ForgeEventBusEvents
         {
             BlocklingEntity blockling = (BlocklingEntity) event.getSource().getEntity();
 
-            if (blockling.getSkills().getSkill(CombatSkills.HUNTER).isBought() && blockling.wasLastAttackHunt)
+            if (blockling.getSkills().isBought(CombatSkills.HUNTER) && blockling.wasLastAttackHunt)
             {
                 for (ItemEntity itemEntity : event.getDrops())
                 {
                     ItemStack itemStack = blockling.getEquipment().addItem(itemEntity.getItem());
 
-                    if (blockling.getSkills().getSkill(CombatSkills.ANIMAL_HUNTER).isBought() && event.getEntity() instanceof AnimalEntity)
+                    if (blockling.getSkills().isBought(CombatSkills.ANIMAL_HUNTER) && event.getEntity() instanceof AnimalEntity)
                     {
                         itemStack.setCount(itemStack.getCount() * 2);
                     }
-                    else if (blockling.getSkills().getSkill(CombatSkills.MONSTER_HUNTER).isBought() && event.getEntity() instanceof MonsterEntity)
+                    else if (blockling.getSkills().isBought(CombatSkills.MONSTER_HUNTER) && event.getEntity() instanceof MonsterEntity)
                     {
                         itemStack.setCount(itemStack.getCount() * 2);
                     }
@@ -56,6 +56,8 @@ public class NetworkHandler
         HANDLER.registerMessage(id++, SetLevelCommandMessage.class, SetLevelCommandMessage::encode, SetLevelCommandMessage::decode, SetLevelCommandMessage::handle, Optional.of(NetworkDirection.PLAY_TO_CLIENT));
         HANDLER.registerMessage(id++, SetTypeCommandMessage.class, SetTypeCommandMessage::encode, SetTypeCommandMessage::decode, SetTypeCommandMessage::handle, Optional.of(NetworkDirection.PLAY_TO_CLIENT));
         HANDLER.registerMessage(id++, SetXpCommandMessage.class, SetXpCommandMessage::encode, SetXpCommandMessage::decode, SetXpCommandMessage::handle, Optional.of(NetworkDirection.PLAY_TO_CLIENT));
+        HANDLER.registerMessage(id++, DebugCommandMessage.class, DebugCommandMessage::encode, DebugCommandMessage::decode, DebugCommandMessage::handle, Optional.of(NetworkDirection.PLAY_TO_CLIENT));
+        HANDLER.registerMessage(id++, BlocklingDebugMessage.class, BlocklingDebugMessage::encode, BlocklingDebugMessage::decode, BlocklingDebugMessage::handle, Optional.of(NetworkDirection.PLAY_TO_CLIENT));
 
         registerMessage(Attribute.IsEnabledMessage.class);
         registerMessage(EnumAttribute.Message.class);
@@ -66,6 +68,8 @@ public class NetworkHandler
 
         registerMessage(Action.CountMessage.class);
         registerMessage(BlocklingAttackTargetMessage.class);
+        registerMessage(BlocklingClientSideLightMessage.class);
+        registerMessage(BlocklingDebugSubscribeMessage.class);
         registerMessage(BlocklingGuiHandler.OpenMessage.class);
         registerMessage(BlocklingNameMessage.class);
         registerMessage(BlocklingScaleMessage.class);
@@ -0,0 +1,56 @@
+package com.willr27.blocklings.network.messages;
+
+import com.willr27.blocklings.entity.blockling.BlocklingEntity;
+import com.willr27.blocklings.network.BlocklingMessage;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.network.PacketBuffer;
+
+import javax.annotation.Nonnull;
+
+public class BlocklingClientSideLightMessage extends BlocklingMessage<BlocklingClientSideLightMessage>
+{
+    /**
+     * Whether the blockling's light is only placed on clients.
+     */
+    private boolean clientSideLight;
+
+    /**
+     * Empty constructor used ONLY for decoding.
+     */
+    public BlocklingClientSideLightMessage()
+    {
+        super(null);
+    }
+
+    /**
+     * @param blockling the blockling.
+     * @param clientSideLight whether the blockling's light is only placed on clients.
+     */
+    public BlocklingClientSideLightMessage(BlocklingEntity blockling, boolean clientSideLight)
+    {
+        super(blockling);
+        this.clientSideLight = clientSideLight;
+    }
+
+    @Override
+    public void encode(@Nonnull PacketBuffer buf)
+    {
+        super.encode(buf);
+
+        buf.writeBoolean(clientSideLight);
+    }
+
+    @Override
+    public void decode(@Nonnull PacketBuffer buf)
+    {
+        super.decode(buf);
+
+        clientSideLight = buf.readBoolean();
+    }
+
+    @Override
+    protected void handle(@Nonnull PlayerEntity player, @Nonnull BlocklingEntity blockling)
+    {
+        blockling.setClientSideLight(clientSideLight, false);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.willr27.blocklings.network.messages;
+
+import com.willr27.blocklings.client.renderer.BlocklingDebugRenderer;
+import com.willr27.blocklings.debug.BlocklingDebugInfo;
+import com.willr27.blocklings.network.Message;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.network.NetworkDirection;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.function.Supplier;
+
+public class BlocklingDebugMessage extends Message
+{
+    /**
+     * The entity id of the blockling the info is for, or -1 if the debug info should be cleared.
+     */
+    private int blocklingId;
+
+    /**
+     * The debug info, null if it should be cleared.
+     */
+    @Nullable
+    private BlocklingDebugInfo info;
+
+    /**
+     * Clears the debug info on the client.
+     */
+    public BlocklingDebugMessage()
+    {
+        this(-1, null);
+    }
+
+    /**
+     * @param blocklingId the entity id of the blockling the info is for, or -1 if the debug info should be cleared.
+     * @param info the debug info, null if it should be cleared.
+     */
+    public BlocklingDebugMessage(int blocklingId, @Nullable BlocklingDebugInfo info)
+    {
+        this.blocklingId = blocklingId;
+        this.info = info;
+    }
+
+    /**
+     * Encodes the message.
+     *
+     * @param buf the buffer to encode to.
+     */
+    public void encode(@Nonnull PacketBuffer buf)
+    {
+        buf.writeInt(blocklingId);
+        buf.writeBoolean(info != null);
+
+        if (info != null)
+        {
+            info.encode(buf);
+        }
+    }
+
+    /**
+     * Decodes and returns the message.
+     *
+     * @param buf the buffer to decode from.
+     */
+    @Nonnull
+    public static BlocklingDebugMessage decode(@Nonnull PacketBuffer buf)
+    {
+        int blocklingId = buf.readInt();
+
+        return new BlocklingDebugMessage(blocklingId, buf.readBoolean() ? BlocklingDebugInfo.decode(buf) : null);
+    }
+
+    @Override
+    public void handle(Supplier<NetworkEvent.Context> ctx)
+    {
+        NetworkEvent.Context context = ctx.get();
+
+        context.enqueueWork(() ->
+        {
+            if (context.getDirection() == NetworkDirection.PLAY_TO_CLIENT)
+            {
+                BlocklingDebugRenderer.setInfo(blocklingId, info);
+            }
+        });
+        context.setPacketHandled(true);
+    }
+}
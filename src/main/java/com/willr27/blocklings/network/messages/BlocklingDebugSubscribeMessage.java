@@ -0,0 +1,37 @@
+package com.willr27.blocklings.network.messages;
+
+import com.willr27.blocklings.debug.BlocklingDebugChannel;
+import com.willr27.blocklings.entity.blockling.BlocklingEntity;
+import com.willr27.blocklings.network.BlocklingMessage;
+import net.minecraft.entity.player.PlayerEntity;
+
+import javax.annotation.Nonnull;
+
+public class BlocklingDebugSubscribeMessage extends BlocklingMessage<BlocklingDebugSubscribeMessage>
+{
+    /**
+     * Empty constructor used ONLY for decoding.
+     */
+    public BlocklingDebugSubscribeMessage()
+    {
+        super(null);
+    }
+
+    /**
+     * @param blockling the blockling to subscribe to.
+     */
+    public BlocklingDebugSubscribeMessage(@Nonnull BlocklingEntity blockling)
+    {
+        super(blockling, false);
+    }
+
+    @Override
+    protected void handle(@Nonnull PlayerEntity player, @Nonnull BlocklingEntity blockling)
+    {
+        // The message is only sent in response to the debug command, but the client can't be trusted to only send it then.
+        if (!blockling.level.isClientSide() && player.hasPermissions(2))
+        {
+            BlocklingDebugChannel.subscribe(player, blockling);
+        }
+    }
+}
\ No newline at end of file
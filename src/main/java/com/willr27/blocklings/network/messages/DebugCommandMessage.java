@@ -0,0 +1,63 @@
+package com.willr27.blocklings.network.messages;
+
+import com.willr27.blocklings.entity.blockling.BlocklingEntity;
+import com.willr27.blocklings.network.Message;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.network.NetworkDirection;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+public class DebugCommandMessage extends Message
+{
+    /**
+     * Encodes the message.
+     *
+     * @param buf the buffer to encode to.
+     */
+    public void encode(@Nonnull PacketBuffer buf)
+    {
+
+    }
+
+    /**
+     * Decodes and returns the message.
+     *
+     * @param buf the buffer to decode from.
+     */
+    @Nonnull
+    public static DebugCommandMessage decode(@Nonnull PacketBuffer buf)
+    {
+        return new DebugCommandMessage();
+    }
+
+    @Override
+    public void handle(Supplier<NetworkEvent.Context> ctx)
+    {
+        NetworkEvent.Context context = ctx.get();
+
+        context.enqueueWork(() ->
+        {
+            boolean isClient = context.getDirection() == NetworkDirection.PLAY_TO_CLIENT;
+
+            PlayerEntity player = isClient ? getClientPlayer() : context.getSender();
+            Objects.requireNonNull(player, "No player entity found when handling message.");
+
+            if (isClient)
+            {
+                Entity entity = Minecraft.getInstance().crosshairPickEntity;
+
+                if (entity instanceof BlocklingEntity)
+                {
+                    new BlocklingDebugSubscribeMessage((BlocklingEntity) entity).sendToServer();
+                }
+            }
+        });
+        context.setPacketHandled(true);
+    }
+}
@@ -6,9 +6,11 @@ import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.Direction;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.registry.Registry;
+import net.minecraft.world.IBlockReader;
 import net.minecraft.world.World;
 import net.minecraftforge.common.Tags;
 import net.minecraftforge.common.util.Lazy;
@@ -498,13 +500,23 @@ public class BlockUtil
     /**
      * Checks whether all adjacent blocks are solid.
      *
-     * @param world the world the block is in.
+     * @param world the world (or block reader) the block is in.
      * @param blockPos the block position to test.
      * @return true if all adjacent blocks are solid.
      */
-    public static boolean areAllAdjacentBlocksSolid(@Nonnull World world, @Nonnull BlockPos blockPos)
+    public static boolean areAllAdjacentBlocksSolid(@Nonnull IBlockReader world, @Nonnull BlockPos blockPos)
     {
-        return !Arrays.stream(getAdjacentBlockPositions(blockPos)).anyMatch(blockPos1 -> !world.getBlockState(blockPos1).getMaterial().isSolid());
+        BlockPos.Mutable adjacentPos = new BlockPos.Mutable();
+
+        for (Direction direction : Direction.values())
+        {
+            if (!world.getBlockState(adjacentPos.setWithOffset(blockPos, direction)).getMaterial().isSolid())
+            {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
@@ -528,6 +540,21 @@ public class BlockUtil
         };
     }
 
+    /**
+     * The offsets of the positions surrounding a block pos, in the same order as {@link #getSurroundingBlockPositions(BlockPos)}.
+     * Lets searches visit the surrounding positions with a mutable block pos instead of allocating an array of positions.
+     */
+    @Nonnull
+    public static final int[][] SURROUNDING_OFFSETS = new int[][]
+    {
+        // Blocks at the same level first.
+        {-1, 0, -1}, {-1, 0, 0}, {-1, 0, 1}, {0, 0, -1}, {0, 0, 1}, {1, 0, -1}, {1, 0, 0}, {1, 0, 1},
+        // Then blocks below.
+        {-1, -1, -1}, {-1, -1, 0}, {-1, -1, 1}, {0, -1, -1}, {0, -1, 0}, {0, -1, 1}, {1, -1, -1}, {1, -1, 0}, {1, -1, 1},
+        // Then blocks above.
+        {0, 1, -1}, {0, 1, 0}, {0, 1, 1}, {-1, 1, -1}, {-1, 1, 0}, {-1, 1, 1}, {1, 1, -1}, {1, 1, 0}, {1, 1, 1},
+    };
+
     /**
      * Gets the positions surrounding the given block pos.
      * Includes diagonals.
@@ -572,6 +599,29 @@ public class BlockUtil
         };
     }
 
+    /**
+     * Creates a hash of the blocks in the 3x3x3 area around the given block pos (including the block pos itself).
+     * Only the type of each block is hashed, so a block's state changing (e.g. a crop growing) does not change the hash.
+     *
+     * @param world the world to read the blocks from.
+     * @param blockPos the center of the area.
+     * @return the hash of the blocks in the area.
+     */
+    public static long hashSurroundingBlocks(@Nonnull IBlockReader world, @Nonnull BlockPos blockPos)
+    {
+        BlockPos.Mutable mutablePos = blockPos.mutable();
+        long hash = System.identityHashCode(world.getBlockState(mutablePos).getBlock());
+
+        for (int[] offset : SURROUNDING_OFFSETS)
+        {
+            mutablePos.setWithOffset(blockPos, offset[0], offset[1], offset[2]);
+
+            hash = hash * 0x9E3779B97F4A7C15L + System.identityHashCode(world.getBlockState(mutablePos).getBlock());
+        }
+
+        return hash;
+    }
+
     /**
      * @return the distance squared between two blocks from center to center.
      */
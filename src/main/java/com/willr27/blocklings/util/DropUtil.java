@@ -58,7 +58,7 @@ public class DropUtil
 
         if (context == Context.MINING)
         {
-            if (blockling.getSkills().getSkill(MiningSkills.HOT_HANDS).isBought())
+            if (blockling.getSkills().isBought(MiningSkills.HOT_HANDS))
             {
                 List<ItemStack> newDrops = new ArrayList<>();
 
@@ -1,6 +1,10 @@
 package com.willr27.blocklings.util;
 
 import com.willr27.blocklings.Blocklings;
+import com.willr27.blocklings.world.LoadedBlockReader;
+import com.willr27.blocklings.world.PathCache;
+import com.willr27.blocklings.world.PathService;
+import com.willr27.blocklings.world.VisibilityCache;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.FlyingEntity;
 import net.minecraft.entity.LivingEntity;
@@ -9,19 +13,15 @@ import net.minecraft.entity.passive.WaterMobEntity;
 import net.minecraft.pathfinding.Path;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.BlockRayTraceResult;
-import net.minecraft.util.math.RayTraceContext;
-import net.minecraft.util.math.RayTraceResult;
-import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.world.World;
 import net.minecraftforge.common.util.Lazy;
+import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Map;
-import java.util.Objects;
-import java.util.TreeMap;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contains utility methods pertinent to entities.
@@ -111,34 +111,13 @@ public class EntityUtil
     }
 
     /**
+     * Tests whether the given entity can see the given block pos using the world's visibility cache.
+     *
      * @return true if the given entity can see the given block pos.
      */
     public static boolean canSee(@Nonnull LivingEntity entity, @Nonnull BlockPos blockPos)
     {
-        Vector3d entityPos = new Vector3d(entity.getX(), entity.getEyeY(), entity.getZ());
-
-        // Check each corner of the block for a more robust result.
-        for (double x = 0.05; x < 1.0; x += 0.9)
-        {
-            for (double y = 0.05; y < 1.0; y += 0.9)
-            {
-                for (double z = 0.05; z < 1.0; z += 0.9)
-                {
-                    Vector3d targetPos = new Vector3d(blockPos.getX() + x, blockPos.getY() + y, blockPos.getZ() + z);
-                    BlockRayTraceResult result = entity.level.clip(new RayTraceContext(entityPos, targetPos, RayTraceContext.BlockMode.OUTLINE, RayTraceContext.FluidMode.ANY, entity));
-
-                    if (result.getType() != RayTraceResult.Type.MISS)
-                    {
-                        if (result.getBlockPos().equals(blockPos))
-                        {
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-
-        return false;
+        return VisibilityCache.get(entity.level).canSee(entity, blockPos);
     }
 
     /**
@@ -167,56 +146,151 @@ public class EntityUtil
      *
      * @param entity the entity to create a path for.
      * @param blockPos the pos to create a path to.
-     * @param stopDistanceSq if the distance between the path's target and target block is within this range we can return (0 to just find the closest path).
+     * @param stopDistanceSq the path's target must be within this range of the target block (0 to just find the closest path).
      * @return the path or null if no path was found.
      */
     @Nullable
     public static Path createPathTo(@Nonnull MobEntity entity, @Nonnull BlockPos blockPos, float stopDistanceSq)
     {
-        Path closestPath = null;
-        double closestDistanceSq = Double.MAX_VALUE;
+        Pair<BlockPos, Path> result = createPathToAny(entity, Collections.singletonList(blockPos), stopDistanceSq);
 
-        Path path = entity.getNavigation().createPath(blockPos, 0);
+        return result != null ? result.getValue() : null;
+    }
 
-        if (path != null)
+    /**
+     * Creates a path to whichever of the given blocks is cheapest to reach using a single path search.
+     * Every non-solid position in or around each block is a goal of the search,
+     * so the search stops at the first position found that the entity could stand at to reach one of the blocks.
+     *
+     * @param entity the entity to create a path for.
+     * @param blockPositions the positions of the blocks to create a path to.
+     * @param stopDistanceSq the path's target must be within this range of the block it reaches (0 to just find the closest path).
+     * @return the block the path reaches and the path, or null if no path was found.
+     */
+    @Nullable
+    public static Pair<BlockPos, Path> createPathToAny(@Nonnull MobEntity entity, @Nonnull Collection<BlockPos> blockPositions, float stopDistanceSq)
+    {
+        Map<BlockPos, BlockPos> blockPositionsByGoal = findPathGoals(entity.level, blockPositions);
+
+        if (blockPositionsByGoal.isEmpty())
         {
-            closestPath = path;
-            closestDistanceSq = BlockUtil.distanceSq(blockPos, path.getTarget());
+            return null;
+        }
 
-            // The block above is the least desirable target position (in most cases).
-            // So, only if we aren't targeting that position should we return now.
-            if (!path.getTarget().equals(blockPos.above()) && closestDistanceSq < stopDistanceSq)
-            {
-                return closestPath;
-            }
-            else if (stopDistanceSq != 0)
-            {
-                closestDistanceSq = stopDistanceSq;
-            }
+        Set<BlockPos> goals = blockPositionsByGoal.keySet();
+        Path path = PathCache.get(entity.level).createPath(entity, goals, () -> entity.getNavigation().createPath(goals.stream(), 0));
+
+        return toPathResult(blockPositionsByGoal, path, stopDistanceSq);
+    }
+
+    /**
+     * Like {@link #createPathToAny(MobEntity, Collection, float)}, but the path search runs on a worker thread (see {@link PathService}).
+     * Must be called on the server thread, and the result should be polled from the server thread.
+     *
+     * @param entity the entity to create a path for.
+     * @param blockPositions the positions of the blocks to create a path to.
+     * @param stopDistanceSq the path's target must be within this range of the block it reaches (0 to just find the closest path).
+     * @return the future block the path reaches and the path, which completes with null if no path was found.
+     */
+    @Nonnull
+    public static CompletableFuture<Pair<BlockPos, Path>> createPathToAnyAsync(@Nonnull MobEntity entity, @Nonnull Collection<BlockPos> blockPositions, float stopDistanceSq)
+    {
+        Map<BlockPos, BlockPos> blockPositionsByGoal = findPathGoals(entity.level, blockPositions);
+
+        if (blockPositionsByGoal.isEmpty())
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return PathService.get(entity.level).createPathAsync(entity, blockPositionsByGoal.keySet(), 0).thenApply(path -> toPathResult(blockPositionsByGoal, path, stopDistanceSq));
+    }
+
+    /**
+     * Like {@link #createPathToAny(MobEntity, Collection, float)}, but only searches the few blocks around the entity (see {@link PathService#createShortPath}).
+     * Used to move between blocks close to each other without a full path search.
+     *
+     * @param entity the entity to create a path for.
+     * @param blockPositions the positions of the blocks to create a path to.
+     * @param stopDistanceSq the path's target must be within this range of the block it reaches (0 to just find the closest path).
+     * @param maxDistance the max distance from the entity the path can go.
+     * @return the block the path reaches and the path, or null if no path was found.
+     */
+    @Nullable
+    public static Pair<BlockPos, Path> createShortPathToAny(@Nonnull MobEntity entity, @Nonnull Collection<BlockPos> blockPositions, float stopDistanceSq, int maxDistance)
+    {
+        Map<BlockPos, BlockPos> blockPositionsByGoal = findPathGoals(entity.level, blockPositions);
+
+        if (blockPositionsByGoal.isEmpty())
+        {
+            return null;
         }
 
-        for (BlockPos adjacentPos : BlockUtil.getSurroundingBlockPositions(blockPos))
+        return toPathResult(blockPositionsByGoal, PathService.get(entity.level).createShortPath(entity, blockPositionsByGoal.keySet(), maxDistance, 0), stopDistanceSq);
+    }
+
+    /**
+     * Finds the goals of a path to any of the given blocks, which are every non-solid position in or around each block.
+     *
+     * @param world the world the blocks are in.
+     * @param blockPositions the positions of the blocks.
+     * @return the block each goal reaches, mapped by goal in the order the blocks were given.
+     */
+    @Nonnull
+    private static Map<BlockPos, BlockPos> findPathGoals(@Nonnull World world, @Nonnull Collection<BlockPos> blockPositions)
+    {
+        LoadedBlockReader blocks = new LoadedBlockReader(world);
+        Map<BlockPos, BlockPos> blockPositionsByGoal = new LinkedHashMap<>();
+
+        for (BlockPos blockPos : blockPositions)
         {
-            path = entity.getNavigation().createPath(adjacentPos, 0);
+            addPathGoal(blocks, blockPositionsByGoal, blockPos, blockPos);
 
-            if (path != null)
+            for (BlockPos surroundingPos : BlockUtil.getSurroundingBlockPositions(blockPos))
             {
-                double distanceSq = BlockUtil.distanceSq(blockPos, path.getTarget());
+                addPathGoal(blocks, blockPositionsByGoal, surroundingPos, blockPos);
+            }
+        }
 
-                if (distanceSq < closestDistanceSq)
-                {
-                    closestPath = path;
-                    closestDistanceSq = distanceSq;
+        return blockPositionsByGoal;
+    }
 
-                    if (closestDistanceSq < stopDistanceSq)
-                    {
-                        return closestPath;
-                    }
-                }
-            }
+    /**
+     * @param blockPositionsByGoal the block each goal reaches.
+     * @param path the path found to one of the goals (can be null if no path was found).
+     * @param stopDistanceSq the path's target must be within this range of the block it reaches (0 to just find the closest path).
+     * @return the block the path reaches and the path, or null if the path doesn't reach any of the blocks.
+     */
+    @Nullable
+    private static Pair<BlockPos, Path> toPathResult(@Nonnull Map<BlockPos, BlockPos> blockPositionsByGoal, @Nullable Path path, float stopDistanceSq)
+    {
+        if (path == null)
+        {
+            return null;
         }
 
-        // If we get here with a stop distance > 0 then return null as we didn't find a path within range
-        return stopDistanceSq > 0 ? null : closestPath;
+        BlockPos blockPos = blockPositionsByGoal.get(path.getTarget());
+
+        if (blockPos == null || (stopDistanceSq > 0 && BlockUtil.distanceSq(blockPos, path.getTarget()) >= stopDistanceSq))
+        {
+            return null;
+        }
+
+        return Pair.of(blockPos, path);
+    }
+
+    /**
+     * Adds the given position as a path goal for the given block if it is not solid and not already a goal.
+     *
+     * @param blocks the blocks to read from.
+     * @param blockPositionsByGoal the blocks each goal position reaches.
+     * @param goalPos the goal position.
+     * @param blockPos the block the goal position reaches.
+     */
+    private static void addPathGoal(@Nonnull LoadedBlockReader blocks, @Nonnull Map<BlockPos, BlockPos> blockPositionsByGoal, @Nonnull BlockPos goalPos, @Nonnull BlockPos blockPos)
+    {
+        if (!blockPositionsByGoal.containsKey(goalPos) && !blocks.getBlockState(goalPos).getMaterial().isSolid())
+        {
+            blockPositionsByGoal.put(goalPos, blockPos);
+        }
     }
 }
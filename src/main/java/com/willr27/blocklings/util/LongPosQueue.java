@@ -0,0 +1,88 @@
+package com.willr27.blocklings.util;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A first in first out queue of block positions packed into longs (see {@link net.minecraft.util.math.BlockPos#asLong()}).
+ * Backed by a growable ring buffer so it can be cleared and reused between searches without allocating.
+ */
+public class LongPosQueue
+{
+    /**
+     * The default number of slots.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The ring buffer of queued positions.
+     */
+    @Nonnull
+    private long[] elements = new long[DEFAULT_CAPACITY];
+
+    /**
+     * The index of the head of the queue.
+     */
+    private int head = 0;
+
+    /**
+     * The number of queued positions.
+     */
+    private int size = 0;
+
+    /**
+     * Adds the given position to the tail of the queue.
+     *
+     * @param pos the packed position.
+     */
+    public void add(long pos)
+    {
+        if (size == elements.length)
+        {
+            long[] newElements = new long[elements.length * 2];
+
+            for (int i = 0; i < size; i++)
+            {
+                newElements[i] = elements[(head + i) & (elements.length - 1)];
+            }
+
+            elements = newElements;
+            head = 0;
+        }
+
+        elements[(head + size) & (elements.length - 1)] = pos;
+        size++;
+    }
+
+    /**
+     * Removes and returns the position at the head of the queue.
+     * The queue must not be empty.
+     *
+     * @return the packed position.
+     */
+    public long poll()
+    {
+        long pos = elements[head];
+
+        head = (head + 1) & (elements.length - 1);
+        size--;
+
+        return pos;
+    }
+
+    /**
+     * @return true if the queue is empty.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the positions from the queue.
+     */
+    public void clear()
+    {
+        head = 0;
+        size = 0;
+    }
+}
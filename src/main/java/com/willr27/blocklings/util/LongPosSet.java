@@ -0,0 +1,238 @@
+package com.willr27.blocklings.util;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * An open addressing hash set of block positions packed into longs (see {@link net.minecraft.util.math.BlockPos#asLong()}).
+ * Avoids allocating a block pos or boxed long per entry, and can be cleared and reused between searches.
+ */
+public class LongPosSet
+{
+    /**
+     * The value used to mark an empty slot.
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * The default number of slots.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The slots, each either empty or containing a key.
+     */
+    @Nonnull
+    private long[] keys;
+
+    /**
+     * Whether the set contains the key that has the same value as {@link #EMPTY}.
+     */
+    private boolean containsEmptyKey = false;
+
+    /**
+     * The number of keys in the set.
+     */
+    private int size = 0;
+
+    /**
+     * Default constructor.
+     */
+    public LongPosSet()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize the number of keys expected to be added.
+     */
+    public LongPosSet(int expectedSize)
+    {
+        keys = new long[capacityFor(expectedSize)];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Adds the given key to the set.
+     *
+     * @param key the key to add.
+     * @return true if the key was not already in the set.
+     */
+    public boolean add(long key)
+    {
+        if (key == EMPTY)
+        {
+            if (containsEmptyKey)
+            {
+                return false;
+            }
+
+            containsEmptyKey = true;
+            size++;
+
+            return true;
+        }
+
+        int mask = keys.length - 1;
+
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask)
+        {
+            long slot = keys[i];
+
+            if (slot == EMPTY)
+            {
+                keys[i] = key;
+
+                // Keep the load factor below 0.5 so probes stay short.
+                if (++size * 2 > keys.length)
+                {
+                    resize(keys.length * 2);
+                }
+
+                return true;
+            }
+            else if (slot == key)
+            {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @param key the key to check.
+     * @return true if the set contains the given key.
+     */
+    public boolean contains(long key)
+    {
+        if (key == EMPTY)
+        {
+            return containsEmptyKey;
+        }
+
+        int mask = keys.length - 1;
+
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask)
+        {
+            long slot = keys[i];
+
+            if (slot == EMPTY)
+            {
+                return false;
+            }
+            else if (slot == key)
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys in the set.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return true if the set contains no keys.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the keys from the set without shrinking it.
+     */
+    public void clear()
+    {
+        if (size > 0)
+        {
+            Arrays.fill(keys, EMPTY);
+            containsEmptyKey = false;
+            size = 0;
+        }
+    }
+
+    /**
+     * @return a new array containing every key in the set (in no particular order).
+     */
+    @Nonnull
+    public long[] toArray()
+    {
+        long[] result = new long[size];
+        int i = 0;
+
+        if (containsEmptyKey)
+        {
+            result[i++] = EMPTY;
+        }
+
+        for (long key : keys)
+        {
+            if (key != EMPTY)
+            {
+                result[i++] = key;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Rehashes every key into a new array of slots.
+     *
+     * @param capacity the new number of slots (must be a power of 2).
+     */
+    private void resize(int capacity)
+    {
+        long[] oldKeys = keys;
+        int mask = capacity - 1;
+
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+
+        for (long key : oldKeys)
+        {
+            if (key != EMPTY)
+            {
+                int i = hash(key) & mask;
+
+                while (keys[i] != EMPTY)
+                {
+                    i = (i + 1) & mask;
+                }
+
+                keys[i] = key;
+            }
+        }
+    }
+
+    /**
+     * @return the number of slots needed to hold the given number of keys (always a power of 2).
+     */
+    private static int capacityFor(int expectedSize)
+    {
+        int capacity = DEFAULT_CAPACITY;
+
+        while (capacity < expectedSize * 2)
+        {
+            capacity *= 2;
+        }
+
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of the packed position so neighbouring positions don't cluster.
+     *
+     * @return the hash of the given key.
+     */
+    private static int hash(long key)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -2,14 +2,13 @@ package com.willr27.blocklings.util;
 
 import net.minecraft.block.Block;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
+import net.minecraft.world.IBlockReader;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 import java.util.function.Predicate;
 
 /**
@@ -23,13 +22,15 @@ public class WorldUtil
     public static final float MAX_LOGS_TO_LEAVES_RATIO = 1.0f;
 
     /**
-     * @param world the world to search in.
+     * @param world the world (or snapshot of the world) to search in.
      * @param blockPos the block position to start from (must be a log).
      * @param maxTreeLogsSize the max number of blocks that can make up a tree's logs.
+     * @param isValidLogPos the predicate used to test log positions (the position passed in is mutable so should not be stored).
+     * @param isValidLeavesPos the predicate used to test leaves positions (the position passed in is mutable so should not be stored).
      * @return a tree containing all the blocks that make up the tree.
      */
     @Nonnull
-    public static Tree findTreeFromPos(@Nonnull World world, @Nonnull BlockPos blockPos, int maxTreeLogsSize, @Nonnull Predicate<BlockPos> isValidLogPos, @Nonnull Predicate<BlockPos> isValidLeavesPos)
+    public static Tree findTreeFromPos(@Nonnull IBlockReader world, @Nonnull BlockPos blockPos, int maxTreeLogsSize, @Nonnull Predicate<BlockPos> isValidLogPos, @Nonnull Predicate<BlockPos> isValidLeavesPos)
     {
         Tree tree = new Tree();
         Block logBlock = world.getBlockState(blockPos).getBlock();
@@ -40,42 +41,92 @@ public class WorldUtil
         }
 
         Block leavesBlock = BlockUtil.getLeaves(logBlock);
-        Set<BlockPos> logBlockPositionsToTest = new HashSet<>();
+        LongPosSet visitedLogs = new LongPosSet(maxTreeLogsSize);
+        LongPosSet visitedLeaves = new LongPosSet(maxTreeLogsSize);
+        LongPosQueue logBlockPositionsToTest = new LongPosQueue();
+        BlockPos.Mutable surroundingPos = new BlockPos.Mutable();
 
-        logBlockPositionsToTest.add(blockPos);
+        logBlockPositionsToTest.add(blockPos.asLong());
+        visitedLogs.add(blockPos.asLong());
         tree.logs.add(blockPos);
 
         while (!logBlockPositionsToTest.isEmpty() && tree.logs.size() < maxTreeLogsSize)
         {
-            BlockPos testBlockPos = logBlockPositionsToTest.stream().findFirst().get();
+            long testBlockPos = logBlockPositionsToTest.poll();
+            int testX = BlockPos.getX(testBlockPos);
+            int testY = BlockPos.getY(testBlockPos);
+            int testZ = BlockPos.getZ(testBlockPos);
 
-            for (BlockPos surroundingPos : BlockUtil.getSurroundingBlockPositions(testBlockPos))
+            for (int[] offset : BlockUtil.SURROUNDING_OFFSETS)
             {
+                surroundingPos.set(testX + offset[0], testY + offset[1], testZ + offset[2]);
+
+                long surroundingPosLong = surroundingPos.asLong();
                 Block surroundingLogBlock = world.getBlockState(surroundingPos).getBlock();
 
-                if (surroundingLogBlock == logBlock && isValidLogPos.test(surroundingPos))
+                if (surroundingLogBlock == logBlock)
                 {
-                    if (!tree.logs.contains(surroundingPos))
+                    if (!visitedLogs.contains(surroundingPosLong) && isValidLogPos.test(surroundingPos))
                     {
-                        tree.logs.add(surroundingPos);
-                        logBlockPositionsToTest.add(surroundingPos);
+                        visitedLogs.add(surroundingPosLong);
+                        logBlockPositionsToTest.add(surroundingPosLong);
+                        tree.logs.add(surroundingPos.immutable());
                     }
                 }
-                else if (surroundingLogBlock == leavesBlock && isValidLeavesPos.test(surroundingPos))
+                else if (surroundingLogBlock == leavesBlock)
                 {
-                    if (!tree.leaves.contains(surroundingPos))
+                    if (!visitedLeaves.contains(surroundingPosLong) && isValidLeavesPos.test(surroundingPos))
                     {
-                        tree.leaves.add(surroundingPos);
+                        visitedLeaves.add(surroundingPosLong);
+                        tree.leaves.add(surroundingPos.immutable());
                     }
                 }
             }
-
-            logBlockPositionsToTest.remove(testBlockPos);
         }
 
         return tree;
     }
 
+    /**
+     * Orders the given logs breadth first from the given log, the same order {@link #findTreeFromPos} finds them in,
+     * without reading the world. Logs not connected to the given log are left out.
+     *
+     * @param blockPos the log to start from (must be one of the given logs).
+     * @param logBlockPositions the logs to order.
+     * @return the ordered logs.
+     */
+    @Nonnull
+    public static List<BlockPos> orderLogsFrom(@Nonnull BlockPos blockPos, @Nonnull Collection<BlockPos> logBlockPositions)
+    {
+        List<BlockPos> orderedLogBlockPositions = new ArrayList<>(logBlockPositions.size());
+        LongPosSet logs = new LongPosSet(logBlockPositions.size());
+        LongPosSet visitedLogs = new LongPosSet(logBlockPositions.size());
+        LongPosQueue logBlockPositionsToTest = new LongPosQueue();
+
+        logBlockPositions.forEach(logBlockPos -> logs.add(logBlockPos.asLong()));
+        visitedLogs.add(blockPos.asLong());
+        logBlockPositionsToTest.add(blockPos.asLong());
+        orderedLogBlockPositions.add(blockPos);
+
+        while (!logBlockPositionsToTest.isEmpty())
+        {
+            long testBlockPos = logBlockPositionsToTest.poll();
+
+            for (int[] offset : BlockUtil.SURROUNDING_OFFSETS)
+            {
+                long surroundingPosLong = BlockPos.asLong(BlockPos.getX(testBlockPos) + offset[0], BlockPos.getY(testBlockPos) + offset[1], BlockPos.getZ(testBlockPos) + offset[2]);
+
+                if (logs.contains(surroundingPosLong) && visitedLogs.add(surroundingPosLong))
+                {
+                    logBlockPositionsToTest.add(surroundingPosLong);
+                    orderedLogBlockPositions.add(BlockPos.of(surroundingPosLong));
+                }
+            }
+        }
+
+        return orderedLogBlockPositions;
+    }
+
     /**
      * Represents a tree.
      */
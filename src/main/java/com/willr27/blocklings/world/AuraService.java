@@ -0,0 +1,239 @@
+package com.willr27.blocklings.world;
+
+import com.willr27.blocklings.entity.blockling.BlocklingEntity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.potion.Effect;
+import net.minecraft.potion.EffectInstance;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A per world service that applies the effects blocklings give to nearby blocklings and their owners (e.g. the iron type's strength).
+ * Rather than each blockling querying the entities around it, the blocklings giving an effect are bucketed by owner and chunk each cycle,
+ * each bucket runs a single entity query, and each entity is given each effect at most once per cycle.
+ * Effects that still have plenty of time left are not reapplied, which saves an effect packet for each entity.
+ */
+public class AuraService
+{
+    /**
+     * The number of ticks between each cycle.
+     */
+    private static final int CYCLE_INTERVAL = 20;
+
+    /**
+     * The range of each aura.
+     */
+    private static final float RANGE = 8.0f;
+
+    /**
+     * The duration of the effect given to blocklings.
+     */
+    private static final int BLOCKLING_DURATION = 100;
+
+    /**
+     * The duration of the effect given to owners, kept above 200 ticks so the effect icon never flashes.
+     */
+    private static final int OWNER_DURATION = 419;
+
+    /**
+     * An effect is only reapplied once it has this many ticks less than its full duration left.
+     */
+    private static final int REFRESH_MARGIN = 60;
+
+    /**
+     * The service for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, AuraService> SERVICES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the service for the given world, creating it if needed.
+     */
+    @Nonnull
+    public static AuraService get(@Nonnull World world)
+    {
+        return SERVICES.computeIfAbsent(world, w -> new AuraService(world));
+    }
+
+    /**
+     * Applies the auras added since the last cycle for the given world (if it has a service), every {@link #CYCLE_INTERVAL} ticks.
+     *
+     * @param world the world being ticked.
+     */
+    public static void onWorldTick(@Nonnull World world)
+    {
+        AuraService service = SERVICES.get(world);
+
+        if (service != null && world.getGameTime() % CYCLE_INTERVAL == 0)
+        {
+            service.tick();
+        }
+    }
+
+    /**
+     * Removes the service for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        SERVICES.remove(world);
+    }
+
+    /**
+     * The world the service is for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * The blocklings giving each effect this cycle, mapped to whether the effect is also given to nearby blocklings and not just the owner.
+     */
+    @Nonnull
+    private final Map<Effect, Map<BlocklingEntity, Boolean>> sources = new HashMap<>();
+
+    /**
+     * @param world the world the service is for.
+     */
+    private AuraService(@Nonnull World world)
+    {
+        this.world = world;
+    }
+
+    /**
+     * Adds the given blockling as a source of the given effect for the next cycle.
+     * Should be called once per cycle for as long as the blockling gives the effect.
+     *
+     * @param source the blockling giving the effect.
+     * @param effect the effect.
+     * @param includeBlocklings whether the effect is given to the blockling and nearby blocklings with the same owner, or only its owner.
+     */
+    public void addSource(@Nonnull BlocklingEntity source, @Nonnull Effect effect, boolean includeBlocklings)
+    {
+        sources.computeIfAbsent(effect, e -> new HashMap<>()).merge(source, includeBlocklings, Boolean::logicalOr);
+    }
+
+    /**
+     * Applies each effect to every blockling and owner in range of at least one of its sources.
+     */
+    private void tick()
+    {
+        for (Map.Entry<Effect, Map<BlocklingEntity, Boolean>> entry : sources.entrySet())
+        {
+            Effect effect = entry.getKey();
+            Set<LivingEntity> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+            Set<BlocklingEntity> blocklings = Collections.newSetFromMap(new IdentityHashMap<>());
+            Map<Pair<UUID, Long>, List<BlocklingEntity>> buckets = new HashMap<>();
+
+            for (Map.Entry<BlocklingEntity, Boolean> sourceEntry : entry.getValue().entrySet())
+            {
+                BlocklingEntity source = sourceEntry.getKey();
+
+                if (!source.isAlive() || source.level != world)
+                {
+                    continue;
+                }
+
+                LivingEntity owner = source.getOwner();
+
+                if (owner != null && owner.distanceToSqr(source) < RANGE * RANGE)
+                {
+                    owners.add(owner);
+                }
+
+                if (sourceEntry.getValue())
+                {
+                    BlockPos blockPos = source.blockPosition();
+                    buckets.computeIfAbsent(Pair.of(source.getOwnerUUID(), ChunkPos.asLong(blockPos.getX() >> 4, blockPos.getZ() >> 4)), key -> new ArrayList<>()).add(source);
+                }
+            }
+
+            for (Map.Entry<Pair<UUID, Long>, List<BlocklingEntity>> bucket : buckets.entrySet())
+            {
+                collectBlocklingsInRange(bucket.getKey().getKey(), bucket.getValue(), blocklings);
+            }
+
+            for (LivingEntity owner : owners)
+            {
+                applyEffect(owner, effect, OWNER_DURATION);
+            }
+
+            for (BlocklingEntity blockling : blocklings)
+            {
+                applyEffect(blockling, effect, BLOCKLING_DURATION);
+            }
+        }
+
+        sources.clear();
+    }
+
+    /**
+     * Finds the blocklings in range of any of the given sources, using a single query covering all of them.
+     * The sources should all have the same owner and be close together.
+     *
+     * @param ownerId the id of the owner of the sources, null if they have no owner (in which case any blockling can be affected).
+     * @param sources the sources.
+     * @param blocklings the set to add the blocklings in range to.
+     */
+    private void collectBlocklingsInRange(@Nullable UUID ownerId, @Nonnull List<BlocklingEntity> sources, @Nonnull Set<BlocklingEntity> blocklings)
+    {
+        List<AxisAlignedBB> sourceBoxes = new ArrayList<>(sources.size());
+        AxisAlignedBB queryBox = null;
+
+        for (BlocklingEntity source : sources)
+        {
+            AxisAlignedBB sourceBox = AxisAlignedBB.ofSize(RANGE * 2, RANGE * 2, RANGE * 2).move(source.blockPosition());
+            sourceBoxes.add(sourceBox);
+            queryBox = queryBox == null ? sourceBox : queryBox.minmax(sourceBox);
+        }
+
+        for (BlocklingEntity blockling : world.getEntitiesOfClass(BlocklingEntity.class, queryBox, blockling -> ownerId == null || ownerId.equals(blockling.getOwnerUUID())))
+        {
+            if (blocklings.contains(blockling))
+            {
+                continue;
+            }
+
+            for (AxisAlignedBB sourceBox : sourceBoxes)
+            {
+                if (blockling.getBoundingBox().intersects(sourceBox))
+                {
+                    blocklings.add(blockling);
+
+                    break;
+                }
+            }
+        }
+
+        // A source always gets its own effect, even if it has somehow left its own range.
+        blocklings.addAll(sources);
+    }
+
+    /**
+     * Applies the given effect to the given entity, unless it already has the effect with plenty of time left.
+     *
+     * @param entity the entity.
+     * @param effect the effect.
+     * @param duration the duration of the effect.
+     */
+    private static void applyEffect(@Nonnull LivingEntity entity, @Nonnull Effect effect, int duration)
+    {
+        EffectInstance currentEffect = entity.getEffect(effect);
+
+        if (currentEffect != null && currentEffect.getDuration() > duration - REFRESH_MARGIN)
+        {
+            return;
+        }
+
+        entity.addEffect(new EffectInstance(effect, duration, 0, false, false, true));
+    }
+}
@@ -0,0 +1,209 @@
+package com.willr27.blocklings.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockReader;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A copy of the chunk sections covering an area, captured on the server thread so it can be read from other threads.
+ * Positions outside the area or in chunks that were not loaded when captured are unknown and read as void air.
+ */
+public class ChunkSnapshot implements IBlockReader
+{
+    /**
+     * The number of chunk sections in a chunk column.
+     */
+    private static final int SECTIONS_PER_CHUNK = 16;
+
+    /**
+     * The section x coordinate of the first section covered.
+     */
+    private final int minSectionX;
+
+    /**
+     * The section y coordinate of the first section covered.
+     */
+    private final int minSectionY;
+
+    /**
+     * The section z coordinate of the first section covered.
+     */
+    private final int minSectionZ;
+
+    /**
+     * The number of sections covered along the x axis.
+     */
+    private final int sizeX;
+
+    /**
+     * The number of sections covered along the y axis.
+     */
+    private final int sizeY;
+
+    /**
+     * The number of sections covered along the z axis.
+     */
+    private final int sizeZ;
+
+    /**
+     * The copied sections, null if the section was empty.
+     */
+    @Nonnull
+    private final SectionSnapshot[] sections;
+
+    /**
+     * Whether each section's chunk was loaded when captured.
+     */
+    @Nonnull
+    private final boolean[] loaded;
+
+    /**
+     * Copies the chunk sections covering the given area.
+     * Must be called on the server thread.
+     *
+     * @param world the world to copy from.
+     * @param minPos the minimum corner of the area (inclusive).
+     * @param maxPos the maximum corner of the area (inclusive).
+     */
+    public ChunkSnapshot(@Nonnull World world, @Nonnull BlockPos minPos, @Nonnull BlockPos maxPos)
+    {
+        this(world, minPos, maxPos, (chunk, sectionY) -> SectionSnapshot.copy(chunk.getSections()[sectionY]));
+    }
+
+    /**
+     * Copies the chunk sections covering the given area using the given copier.
+     * Must be called on the server thread.
+     *
+     * @param world the world to copy from.
+     * @param minPos the minimum corner of the area (inclusive).
+     * @param maxPos the maximum corner of the area (inclusive).
+     * @param copier copies each section, which lets copies be shared between snapshots.
+     */
+    public ChunkSnapshot(@Nonnull World world, @Nonnull BlockPos minPos, @Nonnull BlockPos maxPos, @Nonnull SectionCopier copier)
+    {
+        minSectionX = minPos.getX() >> 4;
+        minSectionY = Math.max(minPos.getY() >> 4, 0);
+        minSectionZ = minPos.getZ() >> 4;
+        sizeX = (maxPos.getX() >> 4) - minSectionX + 1;
+        sizeY = Math.max(Math.min(maxPos.getY() >> 4, SECTIONS_PER_CHUNK - 1) - minSectionY + 1, 0);
+        sizeZ = (maxPos.getZ() >> 4) - minSectionZ + 1;
+        sections = new SectionSnapshot[sizeX * sizeY * sizeZ];
+        loaded = new boolean[sections.length];
+
+        for (int x = 0; x < sizeX; x++)
+        {
+            for (int z = 0; z < sizeZ; z++)
+            {
+                Chunk chunk = world.getChunkSource().getChunkNow(minSectionX + x, minSectionZ + z);
+
+                if (chunk == null)
+                {
+                    continue;
+                }
+
+                for (int y = 0; y < sizeY; y++)
+                {
+                    int index = index(x, y, z);
+
+                    loaded[index] = true;
+                    sections[index] = copier.copy(chunk, minSectionY + y);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param blockPos the position to check.
+     * @return true if the block at the given position was captured.
+     */
+    public boolean isKnown(@Nonnull BlockPos blockPos)
+    {
+        int index = index(blockPos);
+
+        return index >= 0 && loaded[index];
+    }
+
+    @Nonnull
+    @Override
+    public BlockState getBlockState(@Nonnull BlockPos blockPos)
+    {
+        int index = index(blockPos);
+
+        if (index < 0 || !loaded[index])
+        {
+            return Blocks.VOID_AIR.defaultBlockState();
+        }
+
+        SectionSnapshot section = sections[index];
+
+        if (section == null)
+        {
+            return Blocks.AIR.defaultBlockState();
+        }
+
+        return section.getBlockState(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15);
+    }
+
+    @Nonnull
+    @Override
+    public FluidState getFluidState(@Nonnull BlockPos blockPos)
+    {
+        return getBlockState(blockPos).getFluidState();
+    }
+
+    @Nullable
+    @Override
+    public TileEntity getBlockEntity(@Nonnull BlockPos blockPos)
+    {
+        return null;
+    }
+
+    /**
+     * @return the index of the section containing the given position, or -1 if it is outside the area.
+     */
+    private int index(@Nonnull BlockPos blockPos)
+    {
+        int x = (blockPos.getX() >> 4) - minSectionX;
+        int y = (blockPos.getY() >> 4) - minSectionY;
+        int z = (blockPos.getZ() >> 4) - minSectionZ;
+
+        if (x < 0 || x >= sizeX || y < 0 || y >= sizeY || z < 0 || z >= sizeZ)
+        {
+            return -1;
+        }
+
+        return index(x, y, z);
+    }
+
+    /**
+     * @return the index into the section arrays for the given section offsets.
+     */
+    private int index(int x, int y, int z)
+    {
+        return (x * sizeY + y) * sizeZ + z;
+    }
+
+    /**
+     * Copies a section of a chunk for a snapshot.
+     * Copies are never modified, so the same copy can be shared between snapshots and read from any thread.
+     */
+    @FunctionalInterface
+    public interface SectionCopier
+    {
+        /**
+         * @param chunk the chunk.
+         * @param sectionY the index of the section in the chunk.
+         * @return the copy, or null if the section is empty.
+         */
+        @Nullable
+        SectionSnapshot copy(@Nonnull Chunk chunk, int sectionY);
+    }
+}
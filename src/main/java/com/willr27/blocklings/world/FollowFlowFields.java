@@ -0,0 +1,337 @@
+package com.willr27.blocklings.world;
+
+import com.willr27.blocklings.util.LongPosQueue;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A per world set of flow fields used by blocklings following their owner.
+ * Each owner gets a single field per follower size, built by a breadth first search outwards from the owner's position,
+ * that stores the next step towards the owner for every position it covers.
+ * This means any number of blocklings of the same size following the same owner share one search rather than each creating their own path.
+ */
+public class FollowFlowFields
+{
+    /**
+     * The max horizontal distance from the owner a field covers.
+     */
+    private static final int FIELD_RADIUS = 24;
+
+    /**
+     * The max vertical distance from the owner a field covers.
+     */
+    private static final int FIELD_HEIGHT = 12;
+
+    /**
+     * The max number of positions a field covers.
+     */
+    private static final int MAX_FIELD_SIZE = 4096;
+
+    /**
+     * The min number of ticks between rebuilding a field when the owner moves.
+     */
+    private static final int MIN_REBUILD_INTERVAL = 5;
+
+    /**
+     * The number of ticks after which a field is rebuilt even if the owner hasn't moved, to pick up any block changes.
+     */
+    private static final int MAX_AGE = 40;
+
+    /**
+     * The number of ticks a field is kept for after it was last used.
+     */
+    private static final int UNUSED_TIMEOUT = 20 * 10;
+
+    /**
+     * The max number of blocks below an airborne owner to look for a position to stand at.
+     */
+    private static final int MAX_OWNER_DROP = 4;
+
+    /**
+     * The fields for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, FollowFlowFields> FIELDS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the fields for the given world, creating them if needed.
+     */
+    @Nonnull
+    public static FollowFlowFields get(@Nonnull World world)
+    {
+        return FIELDS.computeIfAbsent(world, w -> new FollowFlowFields(world));
+    }
+
+    /**
+     * Removes the fields for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        FIELDS.remove(world);
+    }
+
+    /**
+     * The world the fields are for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * Used to read which positions can be stood at when building fields.
+     */
+    @Nonnull
+    private final WalkabilityReader walkability;
+
+    /**
+     * The field for each owner and follower size (see {@link #getSizeKey(int, int)}).
+     */
+    @Nonnull
+    private final Map<Pair<UUID, Integer>, Field> fields = new HashMap<>();
+
+    /**
+     * The queue of positions to expand while building a field.
+     */
+    @Nonnull
+    private final LongPosQueue queue = new LongPosQueue();
+
+    /**
+     * The game time unused fields were last removed.
+     */
+    private long lastCleanupTime = 0;
+
+    /**
+     * @param world the world the fields are for.
+     */
+    private FollowFlowFields(@Nonnull World world)
+    {
+        this.world = world;
+        this.walkability = new WalkabilityReader(world);
+    }
+
+    /**
+     * Finds the next position to move to in order to reach the given owner, building or rebuilding the owner's field if needed.
+     *
+     * The field only covers positions the follower's bounding box fits at.
+     *
+     * @param owner the owner being followed.
+     * @param follower the follower.
+     * @return the next position to move to, or null if the follower is not covered by the owner's field.
+     */
+    @Nullable
+    public BlockPos getNextStep(@Nonnull LivingEntity owner, @Nonnull Entity follower)
+    {
+        int width = Math.max(1, MathHelper.ceil(follower.getBbWidth()));
+        int height = Math.max(1, MathHelper.ceil(follower.getBbHeight()));
+        Field field = getField(owner, width, height);
+        BlockPos blockPos = follower.blockPosition();
+
+        if (field == null)
+        {
+            return null;
+        }
+
+        long from = blockPos.asLong();
+
+        // The follower may be mid jump, in which case it is above the position it is moving from.
+        if (!field.next.containsKey(from))
+        {
+            from = BlockPos.offset(from, Direction.DOWN);
+
+            if (!field.next.containsKey(from))
+            {
+                return null;
+            }
+        }
+
+        return BlockPos.of(field.next.get(from));
+    }
+
+    /**
+     * @param width the width of a follower in blocks.
+     * @param height the height of a follower in blocks.
+     * @return the key used to tell apart fields for followers of different sizes.
+     */
+    private static int getSizeKey(int width, int height)
+    {
+        return width << 16 | height;
+    }
+
+    /**
+     * @param owner the owner.
+     * @param width the width of the follower in blocks.
+     * @param height the height of the follower in blocks.
+     * @return the owner's field for followers of the given size, or null if the owner has nowhere to stand nearby.
+     */
+    @Nullable
+    private Field getField(@Nonnull LivingEntity owner, int width, int height)
+    {
+        long gameTime = world.getGameTime();
+
+        if (gameTime - lastCleanupTime >= UNUSED_TIMEOUT)
+        {
+            lastCleanupTime = gameTime;
+            fields.values().removeIf(field -> gameTime - field.lastUsedTime >= UNUSED_TIMEOUT);
+        }
+
+        Pair<UUID, Integer> key = Pair.of(owner.getUUID(), getSizeKey(width, height));
+        Field field = fields.get(key);
+        long origin = findOwnerStandPos(owner.blockPosition());
+
+        if (field == null || gameTime - field.buildTime >= MAX_AGE || (field.origin != origin && gameTime - field.buildTime >= MIN_REBUILD_INTERVAL))
+        {
+            if (origin == Long.MIN_VALUE)
+            {
+                fields.remove(key);
+
+                return null;
+            }
+
+            field = build(origin, gameTime, width, height);
+            fields.put(key, field);
+        }
+
+        field.lastUsedTime = gameTime;
+
+        return field;
+    }
+
+    /**
+     * @param ownerBlockPos the owner's block position.
+     * @return the position the owner is standing at (as a long), or {@link Long#MIN_VALUE} if there is nowhere to stand below the owner.
+     */
+    private long findOwnerStandPos(@Nonnull BlockPos ownerBlockPos)
+    {
+        walkability.clear();
+
+        for (int i = 0; i <= MAX_OWNER_DROP; i++)
+        {
+            long blockPos = BlockPos.asLong(ownerBlockPos.getX(), ownerBlockPos.getY() - i, ownerBlockPos.getZ());
+
+            if (walkability.isStandable(blockPos))
+            {
+                return blockPos;
+            }
+        }
+
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Builds a field by searching outwards from the given position.
+     * The search runs in reverse, finding each position a follower could move to the current position from.
+     * Only positions the follower's bounding box fits at are covered, so a wide or tall follower is never led into a gap it can't fit through.
+     *
+     * @param origin the position the owner is standing at (as a long).
+     * @param gameTime the current game time.
+     * @param width the width of the follower in blocks.
+     * @param height the height of the follower in blocks.
+     * @return the field.
+     */
+    @Nonnull
+    private Field build(long origin, long gameTime, int width, int height)
+    {
+        Field field = new Field(origin, gameTime);
+        int originX = BlockPos.getX(origin);
+        int originY = BlockPos.getY(origin);
+        int originZ = BlockPos.getZ(origin);
+
+        walkability.clear();
+        queue.clear();
+
+        field.next.put(origin, origin);
+        queue.add(origin);
+
+        while (!queue.isEmpty() && field.next.size() < MAX_FIELD_SIZE)
+        {
+            long to = queue.poll();
+            int toX = BlockPos.getX(to);
+            int toY = BlockPos.getY(to);
+            int toZ = BlockPos.getZ(to);
+
+            for (Direction direction : Direction.Plane.HORIZONTAL)
+            {
+                int fromX = toX + direction.getStepX();
+                int fromZ = toZ + direction.getStepZ();
+
+                if (Math.abs(fromX - originX) > FIELD_RADIUS || Math.abs(fromZ - originZ) > FIELD_RADIUS)
+                {
+                    continue;
+                }
+
+                // The search runs in reverse, so the offsets are flipped to find the positions that could step to this one.
+                for (int offsetY : WalkabilityReader.STEP_OFFSETS_Y)
+                {
+                    int fromY = toY - offsetY;
+                    long from = BlockPos.asLong(fromX, fromY, fromZ);
+
+                    if (Math.abs(fromY - originY) > FIELD_HEIGHT || field.next.containsKey(from) || !walkability.isStandable(from, width, height))
+                    {
+                        continue;
+                    }
+
+                    if (!walkability.canStep(fromX, fromY, fromZ, toX, toY, toZ, width, height))
+                    {
+                        continue;
+                    }
+
+                    field.next.put(from, to);
+                    queue.add(from);
+                }
+            }
+        }
+
+        return field;
+    }
+
+    /**
+     * A flow field towards an owner.
+     */
+    private static class Field
+    {
+        /**
+         * The position the owner was standing at when the field was built (as a long).
+         */
+        final long origin;
+
+        /**
+         * The game time the field was built.
+         */
+        final long buildTime;
+
+        /**
+         * The next position to move to (as a long) for each position covered by the field (as a long).
+         */
+        @Nonnull
+        final Long2LongOpenHashMap next = new Long2LongOpenHashMap();
+
+        /**
+         * The game time the field was last used.
+         */
+        long lastUsedTime;
+
+        /**
+         * @param origin the position the owner is standing at (as a long).
+         * @param buildTime the game time the field was built.
+         */
+        Field(long origin, long buildTime)
+        {
+            this.origin = origin;
+            this.buildTime = buildTime;
+            this.lastUsedTime = buildTime;
+        }
+    }
+}
@@ -0,0 +1,490 @@
+package com.willr27.blocklings.world;
+
+import com.willr27.blocklings.util.BlockUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.SectionPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A per world index of the positions of blocks that blocklings can gather (ores, logs and crops).
+ * Chunk sections are scanned the first time they are queried and then kept up to date via block change events.
+ * This means blocklings working in the same area share a single scan rather than each scanning their own area.
+ */
+public class GatherTargetIndex
+{
+    /**
+     * The number of chunk sections in a chunk column.
+     */
+    private static final int SECTIONS_PER_CHUNK = 16;
+
+    /**
+     * The number of ticks after which an indexed section is rescanned when queried.
+     * This catches any changes made without firing a block event (e.g. blocks set by other mods without notifying neighbours).
+     */
+    private static final int RESCAN_INTERVAL = 20 * 60;
+
+    /**
+     * The index for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, GatherTargetIndex> INDICES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the index for the given world, creating it if needed.
+     */
+    @Nonnull
+    public static GatherTargetIndex get(@Nonnull World world)
+    {
+        return INDICES.computeIfAbsent(world, w -> new GatherTargetIndex(world));
+    }
+
+    /**
+     * Updates the index for the given world (if there is one) when a block changes.
+     *
+     * @param world the world the block changed in.
+     * @param blockPos the position of the block.
+     * @param blockState the new block state at the position.
+     */
+    public static void onBlockChanged(@Nonnull IWorld world, @Nonnull BlockPos blockPos, @Nonnull BlockState blockState)
+    {
+        GatherTargetIndex index = INDICES.get(world);
+
+        if (index != null)
+        {
+            index.update(blockPos, blockState);
+        }
+    }
+
+    /**
+     * Removes any indexed sections for the given chunk (if the world has an index).
+     * Used when chunks are loaded or unloaded as their contents may have changed without us knowing.
+     *
+     * @param world the world the chunk is in (can be null for chunks that are still generating).
+     * @param chunkPos the position of the chunk.
+     */
+    public static void onChunkChanged(@Nullable IWorld world, @Nonnull ChunkPos chunkPos)
+    {
+        GatherTargetIndex index = INDICES.get(world);
+
+        if (index != null)
+        {
+            index.removeChunk(chunkPos);
+        }
+    }
+
+    /**
+     * Removes the index for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        INDICES.remove(world);
+    }
+
+    /**
+     * The world the index is for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * The indexed sections mapped by their section pos (as a long).
+     */
+    @Nonnull
+    private final Long2ObjectOpenHashMap<Section> sections = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * The cached category masks for each block (see {@link Category#mask}).
+     */
+    @Nonnull
+    private final Map<Block, Integer> blockMasks = new HashMap<>();
+
+    /**
+     * The blocks included in each category on top of those the category's predicate accepts (see {@link #include(Category, Collection)}).
+     */
+    @Nonnull
+    private final List<Set<Block>> includedBlocks = new ArrayList<>();
+
+    /**
+     * The predicate used to test whether a block state belongs to any category.
+     */
+    @Nonnull
+    private final Predicate<BlockState> isAnyCategory = blockState -> getMask(blockState.getBlock()) != 0;
+
+    /**
+     * @param world the world the index is for.
+     */
+    private GatherTargetIndex(@Nonnull World world)
+    {
+        this.world = world;
+
+        for (Category category : Category.values())
+        {
+            includedBlocks.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Includes the given blocks in the given category, on top of the blocks the category's predicate accepts.
+     * Used for blocks whitelisted by goals that are not in the default lists (e.g. modded ores), which would otherwise never be indexed.
+     * Any indexed sections are dropped when a new block is included, so they are rescanned for it the next time they are queried.
+     *
+     * @param category the category to include the blocks in.
+     * @param blocks the blocks to include.
+     */
+    public void include(@Nonnull Category category, @Nonnull Collection<Block> blocks)
+    {
+        boolean isAnyNew = false;
+
+        for (Block block : blocks)
+        {
+            if ((getMask(block) & category.mask) == 0)
+            {
+                includedBlocks.get(category.ordinal()).add(block);
+                blockMasks.remove(block);
+                isAnyNew = true;
+            }
+        }
+
+        if (isAnyNew)
+        {
+            sections.clear();
+        }
+    }
+
+    /**
+     * Finds all the indexed positions of the given category within the given area.
+     * Any sections in the area that are not indexed (or are stale) are scanned first.
+     * Sections in chunks that are not loaded are skipped.
+     *
+     * @param category the category of blocks to find.
+     * @param minPos the minimum corner of the area (inclusive).
+     * @param maxPos the maximum corner of the area (inclusive).
+     * @return the list of positions in the area that contained a block of the given category when last checked.
+     */
+    @Nonnull
+    public List<BlockPos> find(@Nonnull Category category, @Nonnull BlockPos minPos, @Nonnull BlockPos maxPos)
+    {
+        List<BlockPos> blockPositions = new ArrayList<>();
+
+        int minSectionY = Math.max(minPos.getY() >> 4, 0);
+        int maxSectionY = Math.min(maxPos.getY() >> 4, SECTIONS_PER_CHUNK - 1);
+
+        for (int sectionX = minPos.getX() >> 4; sectionX <= maxPos.getX() >> 4; sectionX++)
+        {
+            for (int sectionZ = minPos.getZ() >> 4; sectionZ <= maxPos.getZ() >> 4; sectionZ++)
+            {
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++)
+                {
+                    Section section = getOrScanSection(sectionX, sectionY, sectionZ);
+
+                    if (section == null)
+                    {
+                        continue;
+                    }
+
+                    BitSet positions = section.positions[category.ordinal()];
+
+                    if (positions == null)
+                    {
+                        continue;
+                    }
+
+                    for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1))
+                    {
+                        int x = (sectionX << 4) + (i & 15);
+                        int y = (sectionY << 4) + (i >> 8);
+                        int z = (sectionZ << 4) + ((i >> 4) & 15);
+
+                        if (x >= minPos.getX() && x <= maxPos.getX() && y >= minPos.getY() && y <= maxPos.getY() && z >= minPos.getZ() && z <= maxPos.getZ())
+                        {
+                            blockPositions.add(new BlockPos(x, y, z));
+                        }
+                    }
+                }
+            }
+        }
+
+        return blockPositions;
+    }
+
+    /**
+     * Updates the index for the given position if its section is indexed.
+     *
+     * @param blockPos the position of the block.
+     * @param blockState the new block state at the position.
+     */
+    public void update(@Nonnull BlockPos blockPos, @Nonnull BlockState blockState)
+    {
+        Section section = sections.get(SectionPos.asLong(blockPos.getX() >> 4, blockPos.getY() >> 4, blockPos.getZ() >> 4));
+
+        if (section != null)
+        {
+            int mask = getMask(blockState.getBlock());
+
+            section.set(localIndex(blockPos.getX(), blockPos.getY(), blockPos.getZ()), mask);
+            section.markAppeared(mask, world.getGameTime());
+        }
+    }
+
+    /**
+     * Checks whether a block of the given category has appeared in any indexed section covering the given area since the given time.
+     * Does not scan any sections, so it is cheap enough to poll.
+     *
+     * @param category the category of blocks.
+     * @param minPos the minimum corner of the area (inclusive).
+     * @param maxPos the maximum corner of the area (inclusive).
+     * @param gameTime the game time to check from.
+     * @return true if a block of the given category has been added to the index near the area since the given time.
+     */
+    public boolean hasAppearedSince(@Nonnull Category category, @Nonnull BlockPos minPos, @Nonnull BlockPos maxPos, long gameTime)
+    {
+        int minSectionY = Math.max(minPos.getY() >> 4, 0);
+        int maxSectionY = Math.min(maxPos.getY() >> 4, SECTIONS_PER_CHUNK - 1);
+
+        for (int sectionX = minPos.getX() >> 4; sectionX <= maxPos.getX() >> 4; sectionX++)
+        {
+            for (int sectionZ = minPos.getZ() >> 4; sectionZ <= maxPos.getZ() >> 4; sectionZ++)
+            {
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++)
+                {
+                    Section section = sections.get(SectionPos.asLong(sectionX, sectionY, sectionZ));
+
+                    if (section != null && section.appearTimes[category.ordinal()] > gameTime)
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes all the indexed sections in the given chunk.
+     *
+     * @param chunkPos the position of the chunk.
+     */
+    public void removeChunk(@Nonnull ChunkPos chunkPos)
+    {
+        for (int sectionY = 0; sectionY < SECTIONS_PER_CHUNK; sectionY++)
+        {
+            sections.remove(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+        }
+    }
+
+    /**
+     * Gets the indexed section at the given section coordinates, scanning it if it is not indexed or is stale.
+     *
+     * @return the indexed section, or null if the chunk is not loaded.
+     */
+    @Nullable
+    private Section getOrScanSection(int sectionX, int sectionY, int sectionZ)
+    {
+        long key = SectionPos.asLong(sectionX, sectionY, sectionZ);
+        long gameTime = world.getGameTime();
+        Section section = sections.get(key);
+
+        if (section != null && gameTime - section.scanTime < RESCAN_INTERVAL)
+        {
+            return section;
+        }
+
+        Chunk chunk = world.getChunkSource().getChunkNow(sectionX, sectionZ);
+
+        if (chunk == null)
+        {
+            sections.remove(key);
+
+            return null;
+        }
+
+        section = new Section(gameTime);
+
+        ChunkSection chunkSection = chunk.getSections()[sectionY];
+
+        // Only scan each position if the section's palette contains a block we are interested in.
+        if (!ChunkSection.isEmpty(chunkSection) && chunkSection.maybeHas(isAnyCategory))
+        {
+            for (int y = 0; y < 16; y++)
+            {
+                for (int z = 0; z < 16; z++)
+                {
+                    for (int x = 0; x < 16; x++)
+                    {
+                        int mask = getMask(chunkSection.getBlockState(x, y, z).getBlock());
+
+                        if (mask != 0)
+                        {
+                            section.set(localIndex(x, y, z), mask);
+                        }
+                    }
+                }
+            }
+        }
+
+        sections.put(key, section);
+
+        return section;
+    }
+
+    /**
+     * @param block the block.
+     * @return the mask of the categories the block belongs to.
+     */
+    private int getMask(@Nonnull Block block)
+    {
+        return blockMasks.computeIfAbsent(block, b ->
+        {
+            int mask = 0;
+
+            for (Category category : Category.values())
+            {
+                if (category.test(b) || includedBlocks.get(category.ordinal()).contains(b))
+                {
+                    mask |= category.mask;
+                }
+            }
+
+            return mask;
+        });
+    }
+
+    /**
+     * @return the index of the given position within its section.
+     */
+    private static int localIndex(int x, int y, int z)
+    {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    /**
+     * The categories of blocks that are indexed.
+     */
+    public enum Category
+    {
+        ORE(BlockUtil::isOre),
+        LOG(BlockUtil::isLog),
+        CROP(BlockUtil::isCrop);
+
+        /**
+         * The predicate used to test whether a block belongs to the category.
+         */
+        @Nonnull
+        private final Predicate<Block> predicate;
+
+        /**
+         * The bit used to represent the category in a mask.
+         */
+        private final int mask;
+
+        /**
+         * @param predicate the predicate used to test whether a block belongs to the category.
+         */
+        Category(@Nonnull Predicate<Block> predicate)
+        {
+            this.predicate = predicate;
+            this.mask = 1 << ordinal();
+        }
+
+        /**
+         * @param block the block to test.
+         * @return true if the block belongs to the category.
+         */
+        public boolean test(@Nonnull Block block)
+        {
+            return predicate.test(block);
+        }
+    }
+
+    /**
+     * An indexed chunk section.
+     */
+    private static class Section
+    {
+        /**
+         * The game time the section was scanned at.
+         */
+        private final long scanTime;
+
+        /**
+         * The positions (as local indexes) in the section for each category, null if there are none.
+         */
+        @Nonnull
+        private final BitSet[] positions = new BitSet[Category.values().length];
+
+        /**
+         * The game time a block of each category was last added to the section after it was scanned.
+         */
+        @Nonnull
+        private final long[] appearTimes = new long[Category.values().length];
+
+        /**
+         * @param scanTime the game time the section was scanned at.
+         */
+        private Section(long scanTime)
+        {
+            this.scanTime = scanTime;
+        }
+
+        /**
+         * Sets which categories the given position belongs to.
+         *
+         * @param localIndex the local index of the position.
+         * @param mask the mask of categories the position belongs to.
+         */
+        private void set(int localIndex, int mask)
+        {
+            for (Category category : Category.values())
+            {
+                BitSet categoryPositions = positions[category.ordinal()];
+
+                if ((mask & category.mask) != 0)
+                {
+                    if (categoryPositions == null)
+                    {
+                        categoryPositions = positions[category.ordinal()] = new BitSet(16 * 16 * 16);
+                    }
+
+                    categoryPositions.set(localIndex);
+                }
+                else if (categoryPositions != null)
+                {
+                    categoryPositions.clear(localIndex);
+                }
+            }
+        }
+
+        /**
+         * Records that blocks of the given categories have been added to the section.
+         *
+         * @param mask the mask of categories added.
+         * @param gameTime the current game time.
+         */
+        private void markAppeared(int mask, long gameTime)
+        {
+            for (Category category : Category.values())
+            {
+                if ((mask & category.mask) != 0)
+                {
+                    appearTimes[category.ordinal()] = gameTime;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.willr27.blocklings.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockReader;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reads blocks from a world without ever loading chunks.
+ * Only chunks that are already loaded are read (via {@link net.minecraft.world.chunk.AbstractChunkProvider#getChunkNow(int, int)}),
+ * and positions in any other chunk are unknown and read as void air.
+ * The last chunk read is cached, as scans tend to read many positions in the same chunk in a row.
+ * Should only be used on the thread that owns the world.
+ */
+public class LoadedBlockReader implements IBlockReader
+{
+    /**
+     * The world to read from.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * The game time the cached chunk was read at, the cache is dropped when this changes in case the chunk has since unloaded.
+     */
+    private long cacheTime = Long.MIN_VALUE;
+
+    /**
+     * The x coordinate of the cached chunk.
+     */
+    private int cachedChunkX;
+
+    /**
+     * The z coordinate of the cached chunk.
+     */
+    private int cachedChunkZ;
+
+    /**
+     * The cached chunk, null if it was not loaded.
+     */
+    @Nullable
+    private Chunk cachedChunk;
+
+    /**
+     * @param world the world to read from.
+     */
+    public LoadedBlockReader(@Nonnull World world)
+    {
+        this.world = world;
+    }
+
+    /**
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     * @return the chunk at the given coordinates, or null if it is not loaded.
+     */
+    @Nullable
+    public Chunk getChunk(int chunkX, int chunkZ)
+    {
+        long gameTime = world.getGameTime();
+
+        if (cacheTime != gameTime || cachedChunkX != chunkX || cachedChunkZ != chunkZ)
+        {
+            cacheTime = gameTime;
+            cachedChunkX = chunkX;
+            cachedChunkZ = chunkZ;
+            cachedChunk = world.getChunkSource().getChunkNow(chunkX, chunkZ);
+        }
+
+        return cachedChunk;
+    }
+
+    /**
+     * @param blockPos the position to check.
+     * @return true if the chunk containing the given position is loaded.
+     */
+    public boolean isLoaded(@Nonnull BlockPos blockPos)
+    {
+        return getChunk(blockPos.getX() >> 4, blockPos.getZ() >> 4) != null;
+    }
+
+    @Nonnull
+    @Override
+    public BlockState getBlockState(@Nonnull BlockPos blockPos)
+    {
+        if (World.isOutsideBuildHeight(blockPos))
+        {
+            return Blocks.VOID_AIR.defaultBlockState();
+        }
+
+        Chunk chunk = getChunk(blockPos.getX() >> 4, blockPos.getZ() >> 4);
+
+        return chunk != null ? chunk.getBlockState(blockPos) : Blocks.VOID_AIR.defaultBlockState();
+    }
+
+    @Nonnull
+    @Override
+    public FluidState getFluidState(@Nonnull BlockPos blockPos)
+    {
+        return getBlockState(blockPos).getFluidState();
+    }
+
+    @Nullable
+    @Override
+    public TileEntity getBlockEntity(@Nonnull BlockPos blockPos)
+    {
+        Chunk chunk = getChunk(blockPos.getX() >> 4, blockPos.getZ() >> 4);
+
+        return chunk != null ? chunk.getBlockEntity(blockPos, Chunk.CreateEntityType.CHECK) : null;
+    }
+}
@@ -0,0 +1,356 @@
+package com.willr27.blocklings.world;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.pathfinding.Path;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A per world cache of the paths created for blocklings.
+ * Paths are cached by the block the entity started from, the entity's width and the set of goal positions,
+ * and are discarded once a block changes in any chunk the path (or its goals) crosses.
+ * This means a blockling recalculating its path without having moved reuses the last path rather than searching again.
+ */
+public class PathCache
+{
+    /**
+     * The number of ticks a cached path is kept for before it is created again.
+     */
+    private static final int MAX_AGE = 20 * 5;
+
+    /**
+     * The max number of cached paths before the cache is cleared.
+     */
+    private static final int MAX_ENTRIES = 1024;
+
+    /**
+     * The max number of chunks to track changes for before the cache is cleared.
+     */
+    private static final int MAX_TRACKED_CHUNKS = 4096;
+
+    /**
+     * The cache for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, PathCache> CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the cache for the given world, creating it if needed.
+     */
+    @Nonnull
+    public static PathCache get(@Nonnull World world)
+    {
+        return CACHES.computeIfAbsent(world, w -> new PathCache(world));
+    }
+
+    /**
+     * Marks the chunk containing the given position as changed (if the world has a cache).
+     *
+     * @param world the world the block changed in.
+     * @param blockPos the position of the block.
+     */
+    public static void onBlockChanged(@Nonnull IWorld world, @Nonnull BlockPos blockPos)
+    {
+        PathCache cache = CACHES.get(world);
+
+        if (cache != null)
+        {
+            cache.markChanged(blockPos.getX() >> 4, blockPos.getZ() >> 4);
+        }
+    }
+
+    /**
+     * Marks the given chunk as changed (if the world has a cache).
+     *
+     * @param world the world the chunk is in (can be null for chunks that are still generating).
+     * @param chunkPos the position of the chunk.
+     */
+    public static void onChunkChanged(@Nullable IWorld world, @Nonnull ChunkPos chunkPos)
+    {
+        PathCache cache = world != null ? CACHES.get(world) : null;
+
+        if (cache != null)
+        {
+            cache.markChanged(chunkPos.x, chunkPos.z);
+        }
+    }
+
+    /**
+     * Removes the cache for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        CACHES.remove(world);
+    }
+
+    /**
+     * The world the cache is for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * The cached paths mapped by their start, entity width and goals.
+     */
+    @Nonnull
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    /**
+     * The game time a block last changed in each chunk (as a long), or {@link Long#MIN_VALUE} if no change has been seen.
+     */
+    @Nonnull
+    private final Long2LongOpenHashMap changeTimes = new Long2LongOpenHashMap();
+
+    /**
+     * @param world the world the cache is for.
+     */
+    private PathCache(@Nonnull World world)
+    {
+        this.world = world;
+
+        changeTimes.defaultReturnValue(Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns the entity's current path if it still leads to one of the goals, or a copy of the cached path for the given entity and goals if it is still valid.
+     * Otherwise creates a new path using the given supplier and caches it.
+     *
+     * @param entity the entity the path is for.
+     * @param goals the goal positions of the path.
+     * @param createPath creates the path if there is no valid cached path.
+     * @return the path, or null if no path could be created.
+     */
+    @Nullable
+    public Path createPath(@Nonnull MobEntity entity, @Nonnull Set<BlockPos> goals, @Nonnull Supplier<Path> createPath)
+    {
+        Path currentPath = entity.getNavigation().getPath();
+
+        // Like vanilla, keep following the current path if it still leads to one of the goals.
+        if (currentPath != null && !currentPath.isDone() && goals.contains(currentPath.getTarget()))
+        {
+            return currentPath;
+        }
+
+        long gameTime = world.getGameTime();
+        Key key = new Key(entity.blockPosition().asLong(), Float.floatToIntBits(entity.getBbWidth()), goals);
+        Entry entry = entries.get(key);
+
+        if (entry != null)
+        {
+            if (gameTime - entry.time < MAX_AGE && !hasChangedSince(entry.chunks, entry.time))
+            {
+                return entry.path != null ? copy(entry.path) : null;
+            }
+
+            entries.remove(key);
+        }
+
+        Path path = createPath.get();
+
+        if (entries.size() >= MAX_ENTRIES)
+        {
+            entries.clear();
+        }
+
+        entries.put(new Key(key.start, key.width, new HashSet<>(goals)), new Entry(path != null ? copy(path) : null, findChunks(path, goals), gameTime));
+
+        return path;
+    }
+
+    /**
+     * @param chunks the chunks to check (as longs).
+     * @param time the game time to check since.
+     * @return true if a block has changed in any of the given chunks at or after the given time.
+     */
+    private boolean hasChangedSince(@Nonnull long[] chunks, long time)
+    {
+        for (long chunk : chunks)
+        {
+            if (changeTimes.get(chunk) >= time)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     */
+    private void markChanged(int chunkX, int chunkZ)
+    {
+        if (entries.isEmpty())
+        {
+            return;
+        }
+
+        if (changeTimes.size() >= MAX_TRACKED_CHUNKS)
+        {
+            // Forgetting changes could make stale paths look valid, so forget the paths too.
+            entries.clear();
+            changeTimes.clear();
+
+            return;
+        }
+
+        changeTimes.put(ChunkPos.asLong(chunkX, chunkZ), world.getGameTime());
+    }
+
+    /**
+     * @param path the path (can be null if no path was found).
+     * @param goals the goal positions of the path.
+     * @return the chunks (as longs) the path's nodes and goals are in.
+     */
+    @Nonnull
+    private static long[] findChunks(@Nullable Path path, @Nonnull Set<BlockPos> goals)
+    {
+        LongOpenHashSet chunks = new LongOpenHashSet();
+
+        if (path != null)
+        {
+            for (int i = 0; i < path.getNodeCount(); i++)
+            {
+                PathPoint node = path.getNode(i);
+
+                chunks.add(ChunkPos.asLong(node.x >> 4, node.z >> 4));
+            }
+        }
+
+        for (BlockPos goal : goals)
+        {
+            chunks.add(ChunkPos.asLong(goal.getX() >> 4, goal.getZ() >> 4));
+        }
+
+        return chunks.toLongArray();
+    }
+
+    /**
+     * Copies the given path (including how far along it the entity is), as paths can have their nodes replaced as they are followed.
+     *
+     * @param path the path to copy.
+     * @return the copy.
+     */
+    @Nonnull
+    private static Path copy(@Nonnull Path path)
+    {
+        List<PathPoint> nodes = new ArrayList<>(path.getNodeCount());
+
+        for (int i = 0; i < path.getNodeCount(); i++)
+        {
+            nodes.add(path.getNode(i));
+        }
+
+        Path copy = new Path(nodes, path.getTarget(), path.canReach());
+        copy.setNextNodeIndex(path.getNextNodeIndex());
+
+        return copy;
+    }
+
+    /**
+     * The key a path is cached by.
+     */
+    private static class Key
+    {
+        /**
+         * The block the path started from (as a long).
+         */
+        final long start;
+
+        /**
+         * The width of the entity the path is for (as int bits).
+         */
+        final int width;
+
+        /**
+         * The goal positions of the path.
+         */
+        @Nonnull
+        final Set<BlockPos> goals;
+
+        /**
+         * @param start the block the path started from (as a long).
+         * @param width the width of the entity the path is for (as int bits).
+         * @param goals the goal positions of the path.
+         */
+        Key(long start, int width, @Nonnull Set<BlockPos> goals)
+        {
+            this.start = start;
+            this.width = width;
+            this.goals = goals;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return start == key.start && width == key.width && goals.equals(key.goals);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(start, width, goals);
+        }
+    }
+
+    /**
+     * A cached path.
+     */
+    private static class Entry
+    {
+        /**
+         * The path, null if no path was found.
+         */
+        @Nullable
+        final Path path;
+
+        /**
+         * The chunks (as longs) the path's nodes and goals are in.
+         */
+        @Nonnull
+        final long[] chunks;
+
+        /**
+         * The game time the path was created.
+         */
+        final long time;
+
+        /**
+         * @param path the path, null if no path was found.
+         * @param chunks the chunks (as longs) the path's nodes and goals are in.
+         * @param time the game time the path was created.
+         */
+        Entry(@Nullable Path path, @Nonnull long[] chunks, long time)
+        {
+            this.path = path;
+            this.chunks = chunks;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.willr27.blocklings.world;
+
+import com.willr27.blocklings.config.BlocklingsConfig;
+import com.willr27.blocklings.entity.blockling.goal.BlocklingPathGoal;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * A per world coordinator for blockling path recalcs.
+ * Gives each path goal its own phase within the recalc interval, so blocklings started together don't all recalc on the same tick,
+ * and caps the number of recalcs each tick (see {@link BlocklingsConfig.Common#maxPathRecalcsPerTick}).
+ * Recalcs over the cap are queued, and the queue is served first on the following ticks,
+ * so blocklings late in the tick order still get their turn when there are more blocklings than the cap can cover.
+ */
+public class PathRecalcCoordinator
+{
+    /**
+     * The coordinator for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, PathRecalcCoordinator> COORDINATORS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the coordinator for the given world, creating it if needed.
+     */
+    @Nonnull
+    public static PathRecalcCoordinator get(@Nonnull World world)
+    {
+        return COORDINATORS.computeIfAbsent(world, w -> new PathRecalcCoordinator(world));
+    }
+
+    /**
+     * Removes the coordinator for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        COORDINATORS.remove(world);
+    }
+
+    /**
+     * The world the coordinator is for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * The next phase to give out.
+     */
+    private int nextPhase = 0;
+
+    /**
+     * The game time of the tick the recalcs are being counted for.
+     */
+    private long recalcTime = Long.MIN_VALUE;
+
+    /**
+     * The number of recalcs started this tick.
+     */
+    private int recalcCount = 0;
+
+    /**
+     * The goals whose recalcs have been deferred, in the order they were deferred.
+     */
+    @Nonnull
+    private final LinkedHashSet<BlocklingPathGoal> deferredGoals = new LinkedHashSet<>();
+
+    /**
+     * The goals at the front of the queue that have a slot held for them this tick.
+     */
+    @Nonnull
+    private final Set<BlocklingPathGoal> reservedGoals = new HashSet<>();
+
+    /**
+     * @param world the world the coordinator is for.
+     */
+    private PathRecalcCoordinator(@Nonnull World world)
+    {
+        this.world = world;
+    }
+
+    /**
+     * Gives out successive phases, so goals that start at the same time recalc on successive ticks.
+     *
+     * @param interval the recalc interval.
+     * @return the tick within the interval (from 0 to interval - 1) the goal should recalc on.
+     */
+    public int assignPhase(int interval)
+    {
+        int phase = nextPhase % interval;
+        nextPhase = phase + 1;
+
+        return phase;
+    }
+
+    /**
+     * @param phase the phase of the goal.
+     * @param interval the recalc interval.
+     * @return true if this tick is the given phase's recalc tick.
+     */
+    public boolean isRecalcTick(int phase, int interval)
+    {
+        return world.getGameTime() % interval == phase;
+    }
+
+    /**
+     * Tries to start a recalc this tick.
+     * Urgent recalcs always start, but still count towards the cap so fewer regular recalcs run that tick.
+     * Regular recalcs that don't fit under the cap are queued, and the queued goals get the first slots on the following ticks.
+     *
+     * @param goal the goal recalculating its path.
+     * @param urgent whether the recalc is urgent (e.g. the blockling is stuck).
+     * @return true if the recalc can start, false if the cap has been reached and it should be tried again next tick.
+     */
+    public boolean tryStartRecalc(@Nonnull BlocklingPathGoal goal, boolean urgent)
+    {
+        updateTick();
+
+        if (urgent)
+        {
+            recalcCount++;
+
+            return true;
+        }
+
+        if (reservedGoals.remove(goal) || recalcCount + reservedGoals.size() < BlocklingsConfig.COMMON.maxPathRecalcsPerTick.get())
+        {
+            deferredGoals.remove(goal);
+            recalcCount++;
+
+            return true;
+        }
+
+        deferredGoals.add(goal);
+
+        return false;
+    }
+
+    /**
+     * Removes the given goal from the queue, e.g. because it has stopped.
+     *
+     * @param goal the goal.
+     */
+    public void cancelRecalc(@Nonnull BlocklingPathGoal goal)
+    {
+        deferredGoals.remove(goal);
+        reservedGoals.remove(goal);
+    }
+
+    /**
+     * Resets the count when a new tick starts and holds slots for the goals at the front of the queue.
+     * Goals that had a slot held last tick but never asked for it are no longer recalculating, so are dropped from the queue.
+     */
+    private void updateTick()
+    {
+        long gameTime = world.getGameTime();
+
+        if (recalcTime == gameTime)
+        {
+            return;
+        }
+
+        recalcTime = gameTime;
+        recalcCount = 0;
+
+        deferredGoals.removeAll(reservedGoals);
+        reservedGoals.clear();
+
+        int maxRecalcs = BlocklingsConfig.COMMON.maxPathRecalcsPerTick.get();
+
+        for (BlocklingPathGoal goal : deferredGoals)
+        {
+            if (reservedGoals.size() >= maxRecalcs)
+            {
+                break;
+            }
+
+            reservedGoals.add(goal);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,459 @@
+package com.willr27.blocklings.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.EntitySize;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.entity.Pose;
+import net.minecraft.entity.ai.attributes.Attributes;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.network.IPacket;
+import net.minecraft.pathfinding.NodeProcessor;
+import net.minecraft.pathfinding.Path;
+import net.minecraft.pathfinding.PathFinder;
+import net.minecraft.pathfinding.PathNodeType;
+import net.minecraft.pathfinding.WalkNodeProcessor;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.SectionPos;
+import net.minecraft.world.IBlockReader;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.Region;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.fml.network.NetworkHooks;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A per world service that creates blockling paths on worker threads (see {@link SearchExecutor}), as well as short paths on the server thread.
+ * Each path search reads a snapshot of the chunk sections in range of the entity rather than the world itself.
+ * The copied sections are cached for a few seconds or until a block changes in them, so entities pathing around the same area share the copies.
+ * Worker thread searches also never read the entity itself, only a stand-in holding the values the search needs captured alongside the snapshot.
+ */
+public class PathService
+{
+    /**
+     * The max number of cached sections before the cache is cleared.
+     */
+    private static final int MAX_CACHED_SECTIONS = 2048;
+
+    /**
+     * The number of ticks a copied section is cached for before it is copied again.
+     * This catches any changes made without firing a block event (e.g. doors, crops growing or fluids flowing).
+     */
+    private static final int MAX_SECTION_AGE = 20 * 5;
+
+    /**
+     * The max number of stand-ins kept for each entity.
+     * An entity only runs one search at a time, but a search it has abandoned can still be using a stand-in when it starts the next.
+     */
+    private static final int MAX_PROXIES_PER_ENTITY = 2;
+
+    /**
+     * The number of chunk sections in a chunk column.
+     */
+    private static final int SECTIONS_PER_CHUNK = 16;
+
+    /**
+     * The service for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, PathService> SERVICES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the service for the given world, creating it if needed.
+     */
+    @Nonnull
+    public static PathService get(@Nonnull World world)
+    {
+        return SERVICES.computeIfAbsent(world, w -> new PathService(world));
+    }
+
+    /**
+     * Removes the cached section containing the given position (if the world has a service).
+     *
+     * @param world the world the block changed in.
+     * @param blockPos the position of the block.
+     */
+    public static void onBlockChanged(@Nonnull IWorld world, @Nonnull BlockPos blockPos)
+    {
+        PathService service = SERVICES.get(world);
+
+        if (service != null)
+        {
+            service.sections.remove(SectionPos.asLong(blockPos.getX() >> 4, blockPos.getY() >> 4, blockPos.getZ() >> 4));
+        }
+    }
+
+    /**
+     * Removes the cached sections in the given chunk (if the world has a service).
+     *
+     * @param world the world the chunk is in (can be null for chunks that are still generating).
+     * @param chunkPos the position of the chunk.
+     */
+    public static void onChunkChanged(@Nullable IWorld world, @Nonnull ChunkPos chunkPos)
+    {
+        PathService service = world != null ? SERVICES.get(world) : null;
+
+        if (service != null)
+        {
+            for (int sectionY = 0; sectionY < SECTIONS_PER_CHUNK; sectionY++)
+            {
+                service.sections.remove(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+            }
+        }
+    }
+
+    /**
+     * Removes the service for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        SERVICES.remove(world);
+    }
+
+    /**
+     * The world the service is for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * The copied sections mapped by their section position (as a long).
+     */
+    @Nonnull
+    private final Long2ObjectOpenHashMap<CachedSection> sections = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * The pool of stand-ins for each entity that has had a path created on a worker thread, each reused once its last search has finished.
+     * Creating a stand-in constructs a full entity (firing the entity construction events), so each pool is only filled as needed and is bounded.
+     */
+    @Nonnull
+    private final Map<MobEntity, List<PathfindingProxy>> proxies = new WeakHashMap<>();
+
+    /**
+     * @param world the world the service is for.
+     */
+    private PathService(@Nonnull World world)
+    {
+        this.world = world;
+    }
+
+    /**
+     * Creates a path to any of the given goals on a worker thread, the same way the entity's navigator would.
+     * Must be called on the server thread, and the result should be polled from the server thread.
+     *
+     * @param entity the entity to create a path for.
+     * @param goals the goal positions of the path.
+     * @param accuracy how close to a goal the path needs to end.
+     * @return the future path, which completes with null if no path was found or every stand-in for the entity is still in use.
+     */
+    @Nonnull
+    public CompletableFuture<Path> createPathAsync(@Nonnull MobEntity entity, @Nonnull Set<BlockPos> goals, int accuracy)
+    {
+        if (goals.isEmpty() || entity.getY() < 0.0)
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        PathfindingProxy proxy = captureProxy(entity);
+
+        if (proxy == null)
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        float followRange = (float) entity.getAttributeValue(Attributes.FOLLOW_RANGE);
+        int range = (int) followRange;
+        BlockPos blockPos = entity.blockPosition();
+        ChunkSnapshot snapshot = new ChunkSnapshot(world, blockPos.offset(-range, -range, -range), blockPos.offset(range, range, range), this::getSection);
+        SnapshotRegion region = new SnapshotRegion(world, blockPos, snapshot);
+
+        // The navigator's own path finder is not thread safe, so each search gets its own.
+        PathFinder pathFinder = createPathFinder(entity, MathHelper.floor(followRange * 16.0f));
+        Set<BlockPos> targets = new HashSet<>(goals);
+
+        return SearchExecutor.submit(() ->
+        {
+            try
+            {
+                return pathFinder.findPath(region, proxy, targets, followRange, accuracy, 1.0f);
+            }
+            finally
+            {
+                proxy.isSearching = false;
+            }
+        });
+    }
+
+    /**
+     * Creates a short path to any of the given goals on the server thread.
+     * The search only covers the area around the entity and gives up after a few nodes,
+     * so it is far cheaper than the navigator's search when the goals are only a few blocks away.
+     *
+     * @param entity the entity to create a path for.
+     * @param goals the goal positions of the path.
+     * @param maxDistance the max distance from the entity the path can go.
+     * @param accuracy how close to a goal the path needs to end.
+     * @return the path, or null if no path was found.
+     */
+    @Nullable
+    public Path createShortPath(@Nonnull MobEntity entity, @Nonnull Set<BlockPos> goals, int maxDistance, int accuracy)
+    {
+        if (goals.isEmpty() || entity.getY() < 0.0)
+        {
+            return null;
+        }
+
+        BlockPos blockPos = entity.blockPosition();
+        Region region = new Region(world, blockPos.offset(-maxDistance, -maxDistance, -maxDistance), blockPos.offset(maxDistance, maxDistance, maxDistance));
+        PathFinder pathFinder = createPathFinder(entity, maxDistance * maxDistance * 8);
+
+        return pathFinder.findPath(region, entity, goals, maxDistance, accuracy, 1.0f);
+    }
+
+    /**
+     * Captures the position, size, state and pathfinding malus values of the given entity into a stand-in a worker thread can search with.
+     * Uses a free stand-in from the entity's pool, adding one if none are free and the pool isn't full.
+     *
+     * @param entity the entity.
+     * @return the stand-in, which is marked as in use until its search finishes, or null if every stand-in in the pool is in use.
+     */
+    @Nullable
+    private PathfindingProxy captureProxy(@Nonnull MobEntity entity)
+    {
+        List<PathfindingProxy> pool = proxies.computeIfAbsent(entity, e -> new ArrayList<>(MAX_PROXIES_PER_ENTITY));
+        PathfindingProxy proxy = null;
+
+        for (PathfindingProxy pooledProxy : pool)
+        {
+            if (!pooledProxy.isSearching)
+            {
+                proxy = pooledProxy;
+
+                break;
+            }
+        }
+
+        if (proxy == null)
+        {
+            if (pool.size() >= MAX_PROXIES_PER_ENTITY)
+            {
+                return null;
+            }
+
+            proxy = new PathfindingProxy(entity);
+            pool.add(proxy);
+        }
+
+        proxy.capture(entity);
+        proxy.isSearching = true;
+
+        return proxy;
+    }
+
+    /**
+     * @param entity the entity to create a path finder for.
+     * @param maxVisitedNodes the max number of nodes a search can visit.
+     * @return a new path finder set up the same way as the entity's navigator.
+     */
+    @Nonnull
+    private static PathFinder createPathFinder(@Nonnull MobEntity entity, int maxVisitedNodes)
+    {
+        NodeProcessor entityNodeEvaluator = entity.getNavigation().getNodeEvaluator();
+        WalkNodeProcessor nodeEvaluator = new WalkNodeProcessor();
+        nodeEvaluator.setCanPassDoors(entityNodeEvaluator.canPassDoors());
+        nodeEvaluator.setCanOpenDoors(entityNodeEvaluator.canOpenDoors());
+        nodeEvaluator.setCanFloat(entityNodeEvaluator.canFloat());
+
+        return new PathFinder(nodeEvaluator, maxVisitedNodes);
+    }
+
+    /**
+     * Gets the cached copy of the given section, copying it if it is not cached.
+     *
+     * @param chunk the chunk.
+     * @param sectionY the index of the section in the chunk.
+     * @return the copy, or null if the section is empty.
+     */
+    @Nullable
+    private SectionSnapshot getSection(@Nonnull Chunk chunk, int sectionY)
+    {
+        long sectionPos = SectionPos.asLong(chunk.getPos().x, sectionY, chunk.getPos().z);
+        long gameTime = world.getGameTime();
+        CachedSection cachedSection = sections.get(sectionPos);
+
+        if (cachedSection != null && gameTime - cachedSection.time < MAX_SECTION_AGE)
+        {
+            return cachedSection.snapshot;
+        }
+
+        if (sections.size() >= MAX_CACHED_SECTIONS)
+        {
+            sections.clear();
+        }
+
+        SectionSnapshot copy = SectionSnapshot.copy(chunk.getSections()[sectionY]);
+        sections.put(sectionPos, new CachedSection(copy, gameTime));
+
+        return copy;
+    }
+
+    /**
+     * A copied section and when it was copied.
+     */
+    private static class CachedSection
+    {
+        /**
+         * The copy, null if the section was empty.
+         */
+        @Nullable
+        final SectionSnapshot snapshot;
+
+        /**
+         * The game time the section was copied.
+         */
+        final long time;
+
+        /**
+         * @param snapshot the copy, null if the section was empty.
+         * @param time the game time the section was copied.
+         */
+        CachedSection(@Nullable SectionSnapshot snapshot, long time)
+        {
+            this.snapshot = snapshot;
+            this.time = time;
+        }
+    }
+
+    /**
+     * A region that reads blocks from a snapshot instead of the world, so a path finder can use it on a worker thread.
+     * Like the vanilla region, it has no entity collisions.
+     */
+    private static class SnapshotRegion extends Region
+    {
+        /**
+         * The snapshot to read blocks from.
+         */
+        @Nonnull
+        private final ChunkSnapshot snapshot;
+
+        /**
+         * @param world the world the snapshot is of.
+         * @param blockPos the position of the entity, only used to satisfy the vanilla region.
+         * @param snapshot the snapshot to read blocks from.
+         */
+        SnapshotRegion(@Nonnull World world, @Nonnull BlockPos blockPos, @Nonnull ChunkSnapshot snapshot)
+        {
+            super(world, blockPos, blockPos);
+
+            this.snapshot = snapshot;
+        }
+
+        @Nonnull
+        @Override
+        public BlockState getBlockState(@Nonnull BlockPos blockPos)
+        {
+            return snapshot.getBlockState(blockPos);
+        }
+
+        @Nonnull
+        @Override
+        public FluidState getFluidState(@Nonnull BlockPos blockPos)
+        {
+            return snapshot.getFluidState(blockPos);
+        }
+
+        @Nullable
+        @Override
+        public TileEntity getBlockEntity(@Nonnull BlockPos blockPos)
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public IBlockReader getChunkForCollisions(int chunkX, int chunkZ)
+        {
+            return snapshot;
+        }
+    }
+
+    /**
+     * A stand-in for an entity that a path finder on a worker thread can read instead of the live entity.
+     * Holds copies of everything the node evaluator reads from the entity, taken on the server thread, and is never added to the world.
+     */
+    private static class PathfindingProxy extends MobEntity
+    {
+        /**
+         * The captured size of the entity, null until the first capture.
+         */
+        @Nullable
+        private EntitySize size;
+
+        /**
+         * Whether a search on a worker thread is still using the stand-in.
+         */
+        private volatile boolean isSearching = false;
+
+        /**
+         * Must be called on the server thread.
+         *
+         * @param entity the entity to stand in for.
+         */
+        @SuppressWarnings("unchecked")
+        PathfindingProxy(@Nonnull MobEntity entity)
+        {
+            super((EntityType<? extends MobEntity>) entity.getType(), entity.level);
+        }
+
+        /**
+         * Copies the values the node evaluator reads from the given entity.
+         * Must be called on the server thread while no search is using the stand-in.
+         *
+         * @param entity the entity to copy from.
+         */
+        void capture(@Nonnull MobEntity entity)
+        {
+            if (size == null || size.width != entity.getBbWidth() || size.height != entity.getBbHeight())
+            {
+                size = EntitySize.scalable(entity.getBbWidth(), entity.getBbHeight());
+                refreshDimensions();
+            }
+
+            setPos(entity.getX(), entity.getY(), entity.getZ());
+            setOnGround(entity.isOnGround());
+            setShiftKeyDown(entity.isShiftKeyDown());
+            wasTouchingWater = entity.isInWater();
+
+            for (PathNodeType nodeType : PathNodeType.values())
+            {
+                setPathfindingMalus(nodeType, entity.getPathfindingMalus(nodeType));
+            }
+        }
+
+        @Nonnull
+        @Override
+        public EntitySize getDimensions(@Nonnull Pose pose)
+        {
+            return size != null ? size : super.getDimensions(pose);
+        }
+
+        @Nonnull
+        @Override
+        public IPacket<?> getAddEntityPacket()
+        {
+            return NetworkHooks.getEntitySpawningPacket(this);
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package com.willr27.blocklings.world;
+
+import com.willr27.blocklings.util.BlockUtil;
+import com.willr27.blocklings.util.LongPosQueue;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A per world map of the connected regions of positions a blockling can stand at.
+ * Regions are found lazily by a flood fill from the position a blockling is standing at, and each position found is mapped to its region.
+ * If a target has no position within range in the same region, no path to it can exist, so the full path search can be skipped.
+ * Regions are removed when a block changes next to one of their positions or a chunk they touch loads or unloads, and are found again when next needed.
+ */
+public class ReachabilityRegions
+{
+    /**
+     * The max number of positions a region can have before it is treated as unbounded.
+     */
+    private static final int MAX_REGION_SIZE = 4096;
+
+    /**
+     * The max horizontal distance from where a region's flood fill started to its positions before it is treated as unbounded.
+     */
+    private static final int MAX_REGION_RADIUS = 32;
+
+    /**
+     * The max vertical distance from where a region's flood fill started to its positions before it is treated as unbounded.
+     */
+    private static final int MAX_REGION_HEIGHT = 16;
+
+    /**
+     * The max range a target can be reached from to be checked, targets reached from further away are assumed reachable.
+     */
+    private static final int MAX_TARGET_RANGE = 8;
+
+    /**
+     * The max number of positions mapped across all regions before the regions are cleared.
+     */
+    private static final int MAX_CELLS = 65536;
+
+    /**
+     * The number of ticks a region is kept for before it is found again.
+     * This catches any changes made without firing a block event (e.g. crops growing), so is kept short.
+     */
+    private static final int MAX_AGE = 20 * 5;
+
+    /**
+     * The regions for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, ReachabilityRegions> REGIONS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the regions for the given world, creating them if needed.
+     */
+    @Nonnull
+    public static ReachabilityRegions get(@Nonnull World world)
+    {
+        return REGIONS.computeIfAbsent(world, w -> new ReachabilityRegions(world));
+    }
+
+    /**
+     * Removes any regions next to the given position (if the world has regions).
+     *
+     * @param world the world the block changed in.
+     * @param blockPos the position of the block.
+     */
+    public static void onBlockChanged(@Nonnull IWorld world, @Nonnull BlockPos blockPos)
+    {
+        ReachabilityRegions regions = REGIONS.get(world);
+
+        if (regions != null)
+        {
+            regions.update(blockPos);
+        }
+    }
+
+    /**
+     * Removes any regions touching the given chunk (if the world has regions).
+     *
+     * @param world the world the chunk is in (can be null for chunks that are still generating).
+     * @param chunkPos the position of the chunk.
+     */
+    public static void onChunkChanged(@Nullable IWorld world, @Nonnull ChunkPos chunkPos)
+    {
+        ReachabilityRegions regions = world != null ? REGIONS.get(world) : null;
+
+        if (regions != null)
+        {
+            regions.removeChunk(chunkPos);
+        }
+    }
+
+    /**
+     * Removes the regions for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        REGIONS.remove(world);
+    }
+
+    /**
+     * The world the regions are for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * Used to read which positions can be stood at when finding regions.
+     */
+    @Nonnull
+    private final WalkabilityReader walkability;
+
+    /**
+     * The region each mapped position (as a long) is in.
+     */
+    @Nonnull
+    private final Long2ObjectOpenHashMap<Region> regionsByPos = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * The regions.
+     */
+    @Nonnull
+    private final Set<Region> regions = new HashSet<>();
+
+    /**
+     * The queue of positions to expand while finding a region.
+     */
+    @Nonnull
+    private final LongPosQueue queue = new LongPosQueue();
+
+    /**
+     * @param world the world the regions are for.
+     */
+    private ReachabilityRegions(@Nonnull World world)
+    {
+        this.world = world;
+        this.walkability = new WalkabilityReader(world);
+    }
+
+    /**
+     * Checks whether the given entity could possibly reach any of the given targets.
+     * This never rejects a target a path could reach, but may accept targets no path can reach.
+     *
+     * @param entity the entity.
+     * @param targetPositions the positions of the targets.
+     * @param rangeSq the range the entity needs to be within to reach a target.
+     * @return false if none of the targets can be reached.
+     */
+    public boolean canReachAny(@Nonnull MobEntity entity, @Nonnull Collection<BlockPos> targetPositions, float rangeSq)
+    {
+        int range = (int) Math.ceil(Math.sqrt(rangeSq));
+
+        if (range <= 0 || range > MAX_TARGET_RANGE)
+        {
+            return true;
+        }
+
+        Region startRegion = findRegion(entity.blockPosition());
+
+        if (startRegion == null || !startRegion.complete)
+        {
+            return true;
+        }
+
+        for (BlockPos targetPos : targetPositions)
+        {
+            for (int x = targetPos.getX() - range; x <= targetPos.getX() + range; x++)
+            {
+                for (int y = targetPos.getY() - range; y <= targetPos.getY() + range; y++)
+                {
+                    for (int z = targetPos.getZ() - range; z <= targetPos.getZ() + range; z++)
+                    {
+                        if (regionsByPos.get(BlockPos.asLong(x, y, z)) != startRegion)
+                        {
+                            continue;
+                        }
+
+                        if (BlockUtil.distanceSq(targetPos, new BlockPos(x, y, z)) < rangeSq)
+                        {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the region an entity at the given position is in, finding the region if it is not already mapped.
+     *
+     * @param entityBlockPos the entity's block position.
+     * @return the region, or null if the entity isn't standing anywhere (e.g. it is mid jump or climbing).
+     */
+    @Nullable
+    private Region findRegion(@Nonnull BlockPos entityBlockPos)
+    {
+        long gameTime = world.getGameTime();
+
+        walkability.clear();
+
+        // The entity may be mid jump, in which case it is above the position it is standing at.
+        for (int i = 0; i <= 1; i++)
+        {
+            long blockPos = BlockPos.asLong(entityBlockPos.getX(), entityBlockPos.getY() - i, entityBlockPos.getZ());
+            Region region = regionsByPos.get(blockPos);
+
+            if (region != null)
+            {
+                if (gameTime - region.time < MAX_AGE)
+                {
+                    return region;
+                }
+
+                remove(region);
+            }
+
+            if (walkability.isStandable(blockPos))
+            {
+                if (regionsByPos.size() >= MAX_CELLS)
+                {
+                    regionsByPos.clear();
+                    regions.clear();
+                }
+
+                return build(blockPos, gameTime);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds a region by flood filling outwards from the given position.
+     * Two positions are connected if a blockling could step between them in either direction,
+     * which can only over approximate the positions a path could reach.
+     *
+     * @param origin the position to start from (as a long).
+     * @param gameTime the current game time.
+     * @return the region.
+     */
+    @Nonnull
+    private Region build(long origin, long gameTime)
+    {
+        Region region = new Region(gameTime);
+        LongArrayList cells = new LongArrayList();
+        int originX = BlockPos.getX(origin);
+        int originY = BlockPos.getY(origin);
+        int originZ = BlockPos.getZ(origin);
+
+        queue.clear();
+
+        regionsByPos.put(origin, region);
+        cells.add(origin);
+        queue.add(origin);
+
+        while (!queue.isEmpty())
+        {
+            if (cells.size() >= MAX_REGION_SIZE)
+            {
+                region.complete = false;
+
+                break;
+            }
+
+            long from = queue.poll();
+            int fromX = BlockPos.getX(from);
+            int fromY = BlockPos.getY(from);
+            int fromZ = BlockPos.getZ(from);
+
+            for (Direction direction : Direction.Plane.HORIZONTAL)
+            {
+                int toX = fromX + direction.getStepX();
+                int toZ = fromZ + direction.getStepZ();
+
+                for (int offsetY : WalkabilityReader.STEP_OFFSETS_Y)
+                {
+                    int toY = fromY + offsetY;
+
+                    if (!walkability.canStep(fromX, fromY, fromZ, toX, toY, toZ) && !walkability.canStep(toX, toY, toZ, fromX, fromY, fromZ))
+                    {
+                        continue;
+                    }
+
+                    addCell(region, cells, BlockPos.asLong(toX, toY, toZ), originX, originY, originZ);
+                }
+            }
+
+            // Standable positions directly above or below each other are only possible in water, which can be swum up and down.
+            addCell(region, cells, BlockPos.offset(from, Direction.UP), originX, originY, originZ);
+            addCell(region, cells, BlockPos.offset(from, Direction.DOWN), originX, originY, originZ);
+        }
+
+        region.setCells(cells.toLongArray());
+        regions.add(region);
+
+        return region;
+    }
+
+    /**
+     * Adds the given position to the region being found if it is standable and not already mapped.
+     * If the position is too far away or is already in another region, the region is marked as incomplete instead.
+     *
+     * @param region the region being found.
+     * @param cells the positions (as longs) in the region so far.
+     * @param blockPos the connected position (as a long).
+     * @param originX the x coordinate the flood fill started from.
+     * @param originY the y coordinate the flood fill started from.
+     * @param originZ the z coordinate the flood fill started from.
+     */
+    private void addCell(@Nonnull Region region, @Nonnull LongArrayList cells, long blockPos, int originX, int originY, int originZ)
+    {
+        if (!walkability.isStandable(blockPos))
+        {
+            return;
+        }
+
+        Region existingRegion = regionsByPos.get(blockPos);
+
+        if (existingRegion == region)
+        {
+            return;
+        }
+
+        // Another region can only be connected to this one if it was cut short, so this one is too.
+        if (existingRegion != null
+         || Math.abs(BlockPos.getX(blockPos) - originX) > MAX_REGION_RADIUS
+         || Math.abs(BlockPos.getY(blockPos) - originY) > MAX_REGION_HEIGHT
+         || Math.abs(BlockPos.getZ(blockPos) - originZ) > MAX_REGION_RADIUS)
+        {
+            region.complete = false;
+
+            return;
+        }
+
+        regionsByPos.put(blockPos, region);
+        cells.add(blockPos);
+        queue.add(blockPos);
+    }
+
+    /**
+     * Removes any regions with a position whose connections could depend on the given block.
+     * This covers the block and the position above it (whose floor is the block),
+     * as well as any position close enough to step to or from them or to fall past the block.
+     *
+     * @param blockPos the position of the block.
+     */
+    private void update(@Nonnull BlockPos blockPos)
+    {
+        if (regions.isEmpty())
+        {
+            return;
+        }
+
+        int rangeY = WalkabilityReader.MAX_STEP_DROP + 1;
+
+        for (int x = blockPos.getX() - 1; x <= blockPos.getX() + 1; x++)
+        {
+            for (int y = blockPos.getY() - rangeY; y <= blockPos.getY() + rangeY; y++)
+            {
+                for (int z = blockPos.getZ() - 1; z <= blockPos.getZ() + 1; z++)
+                {
+                    Region region = regionsByPos.get(BlockPos.asLong(x, y, z));
+
+                    if (region != null)
+                    {
+                        remove(region);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes any regions with positions in or next to the given chunk.
+     *
+     * @param chunkPos the position of the chunk.
+     */
+    private void removeChunk(@Nonnull ChunkPos chunkPos)
+    {
+        new ArrayList<>(regions).stream().filter(region -> region.touches(chunkPos)).forEach(this::remove);
+    }
+
+    /**
+     * @param region the region to remove.
+     */
+    private void remove(@Nonnull Region region)
+    {
+        if (!regions.remove(region))
+        {
+            return;
+        }
+
+        for (long blockPos : region.cells)
+        {
+            regionsByPos.remove(blockPos, region);
+        }
+    }
+
+    /**
+     * A connected region of positions a blockling can stand at.
+     */
+    private static class Region
+    {
+        /**
+         * The game time the region was found.
+         */
+        final long time;
+
+        /**
+         * Whether the region was found in full, if not then any position could be connected to it.
+         */
+        boolean complete = true;
+
+        /**
+         * The positions in the region (as longs).
+         */
+        @Nonnull
+        long[] cells = new long[0];
+
+        /**
+         * The minimum x coordinate of the region's positions.
+         */
+        int minX;
+
+        /**
+         * The maximum x coordinate of the region's positions.
+         */
+        int maxX;
+
+        /**
+         * The minimum z coordinate of the region's positions.
+         */
+        int minZ;
+
+        /**
+         * The maximum z coordinate of the region's positions.
+         */
+        int maxZ;
+
+        /**
+         * @param time the game time the region was found.
+         */
+        Region(long time)
+        {
+            this.time = time;
+        }
+
+        /**
+         * Sets the region's positions and updates its bounds.
+         *
+         * @param cells the positions in the region (as longs).
+         */
+        void setCells(@Nonnull long[] cells)
+        {
+            this.cells = cells;
+
+            minX = Integer.MAX_VALUE;
+            maxX = Integer.MIN_VALUE;
+            minZ = Integer.MAX_VALUE;
+            maxZ = Integer.MIN_VALUE;
+
+            for (long cell : cells)
+            {
+                minX = Math.min(minX, BlockPos.getX(cell));
+                maxX = Math.max(maxX, BlockPos.getX(cell));
+                minZ = Math.min(minZ, BlockPos.getZ(cell));
+                maxZ = Math.max(maxZ, BlockPos.getZ(cell));
+            }
+        }
+
+        /**
+         * @param chunkPos the chunk to check.
+         * @return true if the region has positions in or next to the given chunk.
+         */
+        boolean touches(@Nonnull ChunkPos chunkPos)
+        {
+            return chunkPos.getMaxBlockX() >= minX - 1 && chunkPos.getMinBlockX() <= maxX + 1 && chunkPos.getMaxBlockZ() >= minZ - 1 && chunkPos.getMinBlockZ() <= maxZ + 1;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.willr27.blocklings.world;
+
+import com.willr27.blocklings.config.BlocklingsConfig;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A per world scheduler that runs block searches a slice at a time at the end of each world tick.
+ * Searches are stepped round-robin until the per tick time budget (see {@link BlocklingsConfig.Common#scanTimeBudget}) runs out,
+ * so many blocklings starting a search on the same tick spreads the work over several ticks rather than causing a spike.
+ */
+public class ScanScheduler
+{
+    /**
+     * The scheduler for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, ScanScheduler> SCHEDULERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the scheduler for the given world, creating it if needed.
+     */
+    @Nonnull
+    public static ScanScheduler get(@Nonnull World world)
+    {
+        return SCHEDULERS.computeIfAbsent(world, w -> new ScanScheduler());
+    }
+
+    /**
+     * Runs the searches for the given world (if it has a scheduler).
+     *
+     * @param world the world being ticked.
+     */
+    public static void onWorldTick(@Nonnull World world)
+    {
+        ScanScheduler scheduler = SCHEDULERS.get(world);
+
+        if (scheduler != null)
+        {
+            scheduler.tick();
+        }
+    }
+
+    /**
+     * Removes the scheduler for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        SCHEDULERS.remove(world);
+    }
+
+    /**
+     * The searches waiting to be stepped, in the order they will next be stepped.
+     */
+    @Nonnull
+    private final Deque<Search> searches = new ArrayDeque<>();
+
+    /**
+     * Adds the given search to the back of the queue.
+     *
+     * @param search the search to run.
+     */
+    public void submit(@Nonnull Search search)
+    {
+        searches.add(search);
+    }
+
+    /**
+     * Steps each search once (a slice of steps per search) until the time budget runs out.
+     * Searches that are not reached this tick are stepped first next tick.
+     */
+    private void tick()
+    {
+        long deadline = System.nanoTime() + BlocklingsConfig.COMMON.scanTimeBudget.get() * 1000L;
+        int stepsPerSlice = BlocklingsConfig.COMMON.scanStepsPerSlice.get();
+        int searchesToStep = searches.size();
+
+        for (int i = 0; i < searchesToStep; i++)
+        {
+            Search search = searches.poll();
+
+            if (search.isCancelled())
+            {
+                continue;
+            }
+
+            for (int step = 0; step < stepsPerSlice && !search.isFinished(); step++)
+            {
+                if (search.step())
+                {
+                    search.finished = true;
+                }
+            }
+
+            if (!search.isFinished())
+            {
+                searches.add(search);
+            }
+
+            // Always step at least one search so a tiny budget can't stall every search.
+            if (System.nanoTime() >= deadline)
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * A search that can be run a step at a time.
+     */
+    public static abstract class Search
+    {
+        /**
+         * Whether the search has finished.
+         */
+        private boolean finished = false;
+
+        /**
+         * Whether the search has been cancelled.
+         */
+        private boolean cancelled = false;
+
+        /**
+         * Runs a single step of the search (e.g. testing a single position).
+         *
+         * @return true if the search has finished.
+         */
+        protected abstract boolean step();
+
+        /**
+         * @return true if the search has finished.
+         */
+        public final boolean isFinished()
+        {
+            return finished;
+        }
+
+        /**
+         * Cancels the search so it is no longer stepped.
+         */
+        public final void cancel()
+        {
+            cancelled = true;
+        }
+
+        /**
+         * @return true if the search has been cancelled.
+         */
+        public final boolean isCancelled()
+        {
+            return cancelled;
+        }
+    }
+}
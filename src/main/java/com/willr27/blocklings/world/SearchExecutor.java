@@ -0,0 +1,50 @@
+package com.willr27.blocklings.world;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The worker pool used to run block and path searches off the server thread.
+ * Tasks must only read data captured for them beforehand (e.g. a {@link ChunkSnapshot}), never the world itself.
+ */
+public class SearchExecutor
+{
+    /**
+     * The number of worker threads, leaving at least half the cores for the server and client.
+     */
+    private static final int THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    /**
+     * Used to give each worker thread a unique name.
+     */
+    @Nonnull
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    /**
+     * The worker pool.
+     */
+    @Nonnull
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREAD_COUNT, runnable ->
+    {
+        Thread thread = new Thread(runnable, "Blocklings Search Worker #" + THREAD_ID.incrementAndGet());
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    /**
+     * Runs the given task on a worker thread.
+     *
+     * @param task the task to run.
+     * @return the future result of the task, to be polled from the server thread.
+     */
+    @Nonnull
+    public static <T> CompletableFuture<T> submit(@Nonnull Supplier<T> task)
+    {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+}
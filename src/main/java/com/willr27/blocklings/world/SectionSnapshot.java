@@ -0,0 +1,130 @@
+package com.willr27.blocklings.world;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.BitArray;
+import net.minecraft.util.palette.IPalette;
+import net.minecraft.util.palette.PalettedContainer;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+
+/**
+ * An immutable copy of the block states in a chunk section, which can be read from any thread.
+ * The copy is taken straight from the section's palette and packed storage, so taking one only clones the packed longs
+ * and the (at most 256) palette entries rather than reading and remapping each of the 4096 states.
+ */
+public class SectionSnapshot
+{
+    /**
+     * The number of blocks in a section.
+     */
+    private static final int SECTION_SIZE = 4096;
+
+    /**
+     * The max number of bits per block a section uses its own palette for, above which it uses the global palette.
+     */
+    private static final int MAX_PALETTE_BITS = 8;
+
+    /**
+     * The packed storage field of a paletted container.
+     */
+    @Nonnull
+    private static final Field STORAGE_FIELD = ObfuscationReflectionHelper.findField(PalettedContainer.class, "field_186021_b");
+
+    /**
+     * The palette field of a paletted container.
+     */
+    @Nonnull
+    private static final Field PALETTE_FIELD = ObfuscationReflectionHelper.findField(PalettedContainer.class, "field_186022_c");
+
+    /**
+     * The bits per block field of a paletted container.
+     */
+    @Nonnull
+    private static final Field BITS_FIELD = ObfuscationReflectionHelper.findField(PalettedContainer.class, "field_186024_e");
+
+    /**
+     * The copied packed storage, which holds the palette id of each block.
+     */
+    @Nonnull
+    private final BitArray storage;
+
+    /**
+     * The copied palette entries indexed by palette id, or null if the section used the global palette.
+     */
+    @Nullable
+    private final BlockState[] palette;
+
+    /**
+     * @param storage the copied packed storage.
+     * @param palette the copied palette entries, or null if the section used the global palette.
+     */
+    private SectionSnapshot(@Nonnull BitArray storage, @Nullable BlockState[] palette)
+    {
+        this.storage = storage;
+        this.palette = palette;
+    }
+
+    /**
+     * Copies the given section.
+     * Must be called on the server thread.
+     *
+     * @param section the section to copy.
+     * @return the copy, or null if the section is empty.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static SectionSnapshot copy(@Nullable ChunkSection section)
+    {
+        if (ChunkSection.isEmpty(section))
+        {
+            return null;
+        }
+
+        PalettedContainer<BlockState> states = section.getStates();
+
+        try
+        {
+            BitArray storage = (BitArray) STORAGE_FIELD.get(states);
+            IPalette<BlockState> palette = (IPalette<BlockState>) PALETTE_FIELD.get(states);
+            int bits = BITS_FIELD.getInt(states);
+            BlockState[] paletteStates = null;
+
+            if (bits <= MAX_PALETTE_BITS)
+            {
+                paletteStates = new BlockState[1 << bits];
+
+                for (int id = 0; id < paletteStates.length; id++)
+                {
+                    paletteStates[id] = palette.valueFor(id);
+                }
+            }
+
+            return new SectionSnapshot(new BitArray(bits, SECTION_SIZE, storage.getRaw().clone()), paletteStates);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new IllegalStateException("Could not copy a chunk section.", e);
+        }
+    }
+
+    /**
+     * @param x the x coordinate within the section.
+     * @param y the y coordinate within the section.
+     * @param z the z coordinate within the section.
+     * @return the block state at the given coordinates.
+     */
+    @Nonnull
+    public BlockState getBlockState(int x, int y, int z)
+    {
+        int id = storage.get(y << 8 | z << 4 | x);
+        BlockState blockState = palette != null ? (id < palette.length ? palette[id] : null) : Block.BLOCK_STATE_REGISTRY.byId(id);
+
+        return blockState != null ? blockState : Blocks.AIR.defaultBlockState();
+    }
+}
@@ -0,0 +1,395 @@
+package com.willr27.blocklings.world;
+
+import com.willr27.blocklings.util.BlockUtil;
+import com.willr27.blocklings.util.WorldUtil;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A per world registry of the trees found from log blocks, shared by every blockling in the world.
+ * Each tree found (valid or not) is kept until one of its logs or leaves changes, or a new log or leaves block appears next to it.
+ * Used on both the client and server, with each world having its own registry.
+ */
+public class TreeRegistry
+{
+    /**
+     * The max number of logs a registered tree can be made up of.
+     */
+    public static final int MAX_TREE_LOGS_SIZE = 40;
+
+    /**
+     * The number of ticks a registered tree is kept for before it is found again.
+     * This catches any changes made without firing a block event.
+     */
+    public static final int MAX_AGE = 20 * 60 * 5;
+
+    /**
+     * The max number of registered trees before the registry is cleared.
+     */
+    private static final int MAX_TREES = 4096;
+
+    /**
+     * The registry for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, TreeRegistry> REGISTRIES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the registry for the given world, creating it if needed.
+     */
+    @Nonnull
+    public static TreeRegistry get(@Nonnull World world)
+    {
+        return REGISTRIES.computeIfAbsent(world, w -> new TreeRegistry(world));
+    }
+
+    /**
+     * Removes any registered trees affected by a block change (if the world has a registry).
+     *
+     * @param world the world the block changed in.
+     * @param blockPos the position of the block.
+     * @param blockState the new block state at the position.
+     */
+    public static void onBlockChanged(@Nonnull IWorld world, @Nonnull BlockPos blockPos, @Nonnull BlockState blockState)
+    {
+        TreeRegistry registry = REGISTRIES.get(world);
+
+        if (registry != null)
+        {
+            registry.update(blockPos, blockState);
+        }
+    }
+
+    /**
+     * Removes any registered trees in the given chunk (if the world has a registry).
+     *
+     * @param world the world the chunk is in (can be null for chunks that are still generating).
+     * @param chunkPos the position of the chunk.
+     */
+    public static void onChunkChanged(@Nullable IWorld world, @Nonnull ChunkPos chunkPos)
+    {
+        TreeRegistry registry = world != null ? REGISTRIES.get(world) : null;
+
+        if (registry != null)
+        {
+            registry.removeChunk(chunkPos);
+        }
+    }
+
+    /**
+     * Removes the registry for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        REGISTRIES.remove(world);
+    }
+
+    /**
+     * The world the registry is for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * Used to read blocks when finding trees, so finding trees never loads chunks.
+     */
+    @Nonnull
+    private final LoadedBlockReader blocks;
+
+    /**
+     * The registered trees mapped by each of their log and leaves positions (as longs).
+     */
+    @Nonnull
+    private final Long2ObjectOpenHashMap<Entry> treesByPos = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * The registered trees.
+     */
+    @Nonnull
+    private final Set<Entry> trees = new HashSet<>();
+
+    /**
+     * The game time a registered tree was last removed or a log or leaves block last appeared in each chunk (as a long).
+     * Chunks without a change read as {@link Long#MIN_VALUE}.
+     */
+    @Nonnull
+    private final Long2LongOpenHashMap changeTimes = new Long2LongOpenHashMap();
+
+    /**
+     * The game time the registry was last cleared.
+     */
+    private long clearTime = Long.MIN_VALUE;
+
+    /**
+     * @param world the world the registry is for.
+     */
+    private TreeRegistry(@Nonnull World world)
+    {
+        this.world = world;
+        this.blocks = new LoadedBlockReader(world);
+
+        changeTimes.defaultReturnValue(Long.MIN_VALUE);
+    }
+
+    /**
+     * Checks whether the given log is part of a valid tree, finding and registering the tree if it is not already registered.
+     *
+     * @param logBlockPos the position of the log.
+     * @return true if the log is part of a valid tree, false if not or the position is not a log.
+     */
+    public boolean isValidTree(@Nonnull BlockPos logBlockPos)
+    {
+        long gameTime = world.getGameTime();
+        Entry entry = treesByPos.get(logBlockPos.asLong());
+
+        if (entry != null)
+        {
+            if (gameTime - entry.time < MAX_AGE)
+            {
+                return entry.valid;
+            }
+
+            remove(entry);
+        }
+
+        WorldUtil.Tree tree = WorldUtil.findTreeFromPos(blocks, logBlockPos, MAX_TREE_LOGS_SIZE, blockPos -> true, blockPos -> true);
+
+        if (tree.logs.isEmpty())
+        {
+            return false;
+        }
+
+        if (trees.size() >= MAX_TREES)
+        {
+            treesByPos.clear();
+            trees.clear();
+            changeTimes.clear();
+            clearTime = gameTime;
+        }
+
+        add(new Entry(tree, gameTime));
+
+        return tree.isValid();
+    }
+
+    /**
+     * Checks whether any tree in the given area could have changed since the given time.
+     * Used to know whether a search of the area that found no valid trees needs repeating.
+     *
+     * @param minPos the minimum corner of the area (inclusive).
+     * @param maxPos the maximum corner of the area (inclusive).
+     * @param time the game time to check since.
+     * @return true if a tree in the area could have changed since the given time.
+     */
+    public boolean hasChangedSince(@Nonnull BlockPos minPos, @Nonnull BlockPos maxPos, long time)
+    {
+        if (clearTime >= time || world.getGameTime() - time >= MAX_AGE)
+        {
+            return true;
+        }
+
+        for (int chunkX = minPos.getX() >> 4; chunkX <= maxPos.getX() >> 4; chunkX++)
+        {
+            for (int chunkZ = minPos.getZ() >> 4; chunkZ <= maxPos.getZ() >> 4; chunkZ++)
+            {
+                if (changeTimes.get(ChunkPos.asLong(chunkX, chunkZ)) >= time)
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes any registered trees affected by a block change.
+     * A tree is affected if the block was one of its logs or leaves, or if the new block is a log or leaves next to it.
+     *
+     * @param blockPos the position of the block.
+     * @param blockState the new block state at the position.
+     */
+    private void update(@Nonnull BlockPos blockPos, @Nonnull BlockState blockState)
+    {
+        Entry entry = treesByPos.get(blockPos.asLong());
+
+        if (entry != null)
+        {
+            remove(entry);
+            markChanged(blockPos.getX() >> 4, blockPos.getZ() >> 4);
+        }
+
+        Block block = blockState.getBlock();
+
+        if (BlockUtil.isLog(block) || BlockUtil.isLeaves(block))
+        {
+            for (int[] offset : BlockUtil.SURROUNDING_OFFSETS)
+            {
+                Entry surroundingEntry = treesByPos.get(BlockPos.asLong(blockPos.getX() + offset[0], blockPos.getY() + offset[1], blockPos.getZ() + offset[2]));
+
+                if (surroundingEntry != null)
+                {
+                    remove(surroundingEntry);
+                }
+            }
+
+            markChanged(blockPos.getX() >> 4, blockPos.getZ() >> 4);
+        }
+    }
+
+    /**
+     * Removes any registered trees with blocks in the given chunk.
+     *
+     * @param chunkPos the position of the chunk.
+     */
+    private void removeChunk(@Nonnull ChunkPos chunkPos)
+    {
+        new ArrayList<>(trees).stream().filter(entry -> entry.overlaps(chunkPos)).forEach(this::remove);
+
+        markChanged(chunkPos.x, chunkPos.z);
+    }
+
+    /**
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     */
+    private void markChanged(int chunkX, int chunkZ)
+    {
+        changeTimes.put(ChunkPos.asLong(chunkX, chunkZ), world.getGameTime());
+    }
+
+    /**
+     * @param entry the tree to register.
+     */
+    private void add(@Nonnull Entry entry)
+    {
+        trees.add(entry);
+
+        for (long blockPos : entry.blockPositions)
+        {
+            Entry previousEntry = treesByPos.put(blockPos, entry);
+
+            // Trees found from different logs can overlap if they were cut short by the max size.
+            if (previousEntry != null && previousEntry != entry)
+            {
+                remove(previousEntry);
+                treesByPos.put(blockPos, entry);
+            }
+        }
+    }
+
+    /**
+     * @param entry the tree to remove.
+     */
+    private void remove(@Nonnull Entry entry)
+    {
+        if (!trees.remove(entry))
+        {
+            return;
+        }
+
+        for (long blockPos : entry.blockPositions)
+        {
+            treesByPos.remove(blockPos, entry);
+        }
+    }
+
+    /**
+     * A registered tree.
+     */
+    private static class Entry
+    {
+        /**
+         * The positions of the tree's logs and leaves (as longs).
+         */
+        @Nonnull
+        final long[] blockPositions;
+
+        /**
+         * Whether the tree is valid (see {@link WorldUtil.Tree#isValid()}).
+         */
+        final boolean valid;
+
+        /**
+         * The game time the tree was found.
+         */
+        final long time;
+
+        /**
+         * The minimum chunk x coordinate the tree has blocks in.
+         */
+        final int minChunkX;
+
+        /**
+         * The maximum chunk x coordinate the tree has blocks in.
+         */
+        final int maxChunkX;
+
+        /**
+         * The minimum chunk z coordinate the tree has blocks in.
+         */
+        final int minChunkZ;
+
+        /**
+         * The maximum chunk z coordinate the tree has blocks in.
+         */
+        final int maxChunkZ;
+
+        /**
+         * @param tree the tree.
+         * @param time the game time the tree was found.
+         */
+        Entry(@Nonnull WorldUtil.Tree tree, long time)
+        {
+            this.blockPositions = new long[tree.logs.size() + tree.leaves.size()];
+            this.valid = tree.isValid();
+            this.time = time;
+
+            int minChunkX = Integer.MAX_VALUE;
+            int maxChunkX = Integer.MIN_VALUE;
+            int minChunkZ = Integer.MAX_VALUE;
+            int maxChunkZ = Integer.MIN_VALUE;
+            int i = 0;
+
+            for (List<BlockPos> blockPositions : Arrays.asList(tree.logs, tree.leaves))
+            {
+                for (BlockPos blockPos : blockPositions)
+                {
+                    this.blockPositions[i++] = blockPos.asLong();
+
+                    minChunkX = Math.min(minChunkX, blockPos.getX() >> 4);
+                    maxChunkX = Math.max(maxChunkX, blockPos.getX() >> 4);
+                    minChunkZ = Math.min(minChunkZ, blockPos.getZ() >> 4);
+                    maxChunkZ = Math.max(maxChunkZ, blockPos.getZ() >> 4);
+                }
+            }
+
+            this.minChunkX = minChunkX;
+            this.maxChunkX = maxChunkX;
+            this.minChunkZ = minChunkZ;
+            this.maxChunkZ = maxChunkZ;
+        }
+
+        /**
+         * @param chunkPos the chunk to check.
+         * @return true if the tree has blocks in the given chunk.
+         */
+        boolean overlaps(@Nonnull ChunkPos chunkPos)
+        {
+            return chunkPos.x >= minChunkX && chunkPos.x <= maxChunkX && chunkPos.z >= minChunkZ && chunkPos.z <= maxChunkZ;
+        }
+    }
+}
@@ -0,0 +1,622 @@
+package com.willr27.blocklings.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.SectionPos;
+import net.minecraft.util.math.shapes.VoxelShape;
+import net.minecraft.util.math.shapes.VoxelShapes;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.IBlockReader;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A per world cache of whether blocks can be seen from an eye position.
+ * Visibility is tested by walking the voxel grid along each ray (a DDA traversal) rather than using full raycasts.
+ * Results are cached per eye position and target block, and discarded when a block changes within the area the rays cover.
+ */
+public class VisibilityCache
+{
+    /**
+     * The number of steps per block eye positions are snapped to, so nearby eye positions can share cached results.
+     */
+    private static final int EYE_GRID = 8;
+
+    /**
+     * The number of ticks a cached result is kept for before it is tested again.
+     */
+    private static final int MAX_AGE = 20 * 30;
+
+    /**
+     * The max number of cached results before the cache is cleared.
+     */
+    private static final int MAX_ENTRIES = 16384;
+
+    /**
+     * The offsets into the target block each ray ends at (near each corner of the block for a more robust result).
+     */
+    private static final double[] CORNER_OFFSETS = new double[] { 0.05, 0.95 };
+
+    /**
+     * The cache for each world.
+     */
+    @Nonnull
+    private static final Map<IWorld, VisibilityCache> CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param world the world.
+     * @return the cache for the given world, creating it if needed.
+     */
+    @Nonnull
+    public static VisibilityCache get(@Nonnull World world)
+    {
+        return CACHES.computeIfAbsent(world, w -> new VisibilityCache(world));
+    }
+
+    /**
+     * Discards any cached results that could be affected by a block change (if the world has a cache).
+     *
+     * @param world the world the block changed in.
+     * @param blockPos the position of the block.
+     */
+    public static void onBlockChanged(@Nonnull IWorld world, @Nonnull BlockPos blockPos)
+    {
+        VisibilityCache cache = CACHES.get(world);
+
+        if (cache != null)
+        {
+            cache.invalidate(blockPos);
+        }
+    }
+
+    /**
+     * Discards any cached results with rays passing through the given chunk (if the world has a cache).
+     *
+     * @param world the world the chunk is in (can be null for chunks that are still generating).
+     * @param chunkPos the position of the chunk.
+     */
+    public static void onChunkChanged(@Nullable IWorld world, @Nonnull ChunkPos chunkPos)
+    {
+        VisibilityCache cache = CACHES.get(world);
+
+        if (cache != null)
+        {
+            cache.invalidateChunk(chunkPos);
+        }
+    }
+
+    /**
+     * Removes the cache for the given world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@Nonnull IWorld world)
+    {
+        CACHES.remove(world);
+    }
+
+    /**
+     * The world the cache is for.
+     */
+    @Nonnull
+    private final World world;
+
+    /**
+     * Used to read blocks when testing visibility, so testing never loads chunks.
+     */
+    @Nonnull
+    private final LoadedBlockReader blocks;
+
+    /**
+     * The cached results mapped by their eye position and target.
+     */
+    @Nonnull
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    /**
+     * The cached results mapped by each section (as a long) their rays could pass through.
+     */
+    @Nonnull
+    private final Long2ObjectOpenHashMap<List<Entry>> entriesBySection = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * The number of entries added to the section lists since the cache was last cleared (including removed entries not yet cleaned up).
+     */
+    private int sectionEntryCount = 0;
+
+    /**
+     * @param world the world the cache is for.
+     */
+    private VisibilityCache(@Nonnull World world)
+    {
+        this.world = world;
+        this.blocks = new LoadedBlockReader(world);
+    }
+
+    /**
+     * @param entity the entity looking.
+     * @param blockPos the block to look at.
+     * @return true if the entity can see the given block.
+     */
+    public boolean canSee(@Nonnull LivingEntity entity, @Nonnull BlockPos blockPos)
+    {
+        return canSee(snapEye(entity.getX()), snapEye(entity.getEyeY()), snapEye(entity.getZ()), blockPos.getX(), blockPos.getY(), blockPos.getZ());
+    }
+
+    /**
+     * Tests a batch of blocks from the same eye position, stopping at the first visible block.
+     *
+     * @param entity the entity looking.
+     * @param blockPositions the blocks to look at.
+     * @return true if the entity can see any of the given blocks.
+     */
+    public boolean canSeeAny(@Nonnull LivingEntity entity, @Nonnull Iterable<BlockPos> blockPositions)
+    {
+        int eyeX = snapEye(entity.getX());
+        int eyeY = snapEye(entity.getEyeY());
+        int eyeZ = snapEye(entity.getZ());
+
+        for (BlockPos blockPos : blockPositions)
+        {
+            if (canSee(eyeX, eyeY, eyeZ, blockPos.getX(), blockPos.getY(), blockPos.getZ()))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Tests a batch of blocks from the same eye position, stopping at the first visible block.
+     *
+     * @param entity the entity looking.
+     * @param packedBlockPositions the blocks to look at, packed into longs (see {@link BlockPos#asLong()}).
+     * @return true if the entity can see any of the given blocks.
+     */
+    public boolean canSeeAny(@Nonnull LivingEntity entity, @Nonnull long[] packedBlockPositions)
+    {
+        int eyeX = snapEye(entity.getX());
+        int eyeY = snapEye(entity.getEyeY());
+        int eyeZ = snapEye(entity.getZ());
+
+        for (long packedBlockPos : packedBlockPositions)
+        {
+            if (canSee(eyeX, eyeY, eyeZ, BlockPos.getX(packedBlockPos), BlockPos.getY(packedBlockPos), BlockPos.getZ(packedBlockPos)))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Tests whether the given block can be seen from the given eye position without using a cache.
+     * Only reads from the given block reader, so can be used with a {@link ChunkSnapshot} from another thread.
+     *
+     * @param blockReader the blocks to test against.
+     * @param eyePos the eye position.
+     * @param x the target block x coordinate.
+     * @param y the target block y coordinate.
+     * @param z the target block z coordinate.
+     * @return true if any corner of the target block can be seen from the eye position.
+     */
+    public static boolean testVisibility(@Nonnull IBlockReader blockReader, @Nonnull Vector3d eyePos, int x, int y, int z)
+    {
+        BlockPos.Mutable testPos = new BlockPos.Mutable();
+
+        // Check each corner of the block for a more robust result.
+        for (double offsetX : CORNER_OFFSETS)
+        {
+            for (double offsetY : CORNER_OFFSETS)
+            {
+                for (double offsetZ : CORNER_OFFSETS)
+                {
+                    if (traverse(blockReader, testPos, eyePos, new Vector3d(x + offsetX, y + offsetY, z + offsetZ), x, y, z))
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Discards any cached results whose rays could pass through the given position.
+     *
+     * @param blockPos the position of the block that changed.
+     */
+    public void invalidate(@Nonnull BlockPos blockPos)
+    {
+        List<Entry> sectionEntries = entriesBySection.get(SectionPos.asLong(blockPos.getX() >> 4, blockPos.getY() >> 4, blockPos.getZ() >> 4));
+
+        if (sectionEntries == null)
+        {
+            return;
+        }
+
+        sectionEntries.removeIf(entry ->
+        {
+            if (entry.removed)
+            {
+                return true;
+            }
+
+            if (entry.contains(blockPos.getX(), blockPos.getY(), blockPos.getZ()))
+            {
+                remove(entry);
+
+                return true;
+            }
+
+            return false;
+        });
+    }
+
+    /**
+     * Discards any cached results whose rays could pass through the given chunk.
+     *
+     * @param chunkPos the position of the chunk.
+     */
+    public void invalidateChunk(@Nonnull ChunkPos chunkPos)
+    {
+        for (int sectionY = 0; sectionY < 16; sectionY++)
+        {
+            List<Entry> sectionEntries = entriesBySection.remove(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+
+            if (sectionEntries != null)
+            {
+                sectionEntries.forEach(this::remove);
+            }
+        }
+    }
+
+    /**
+     * @param eyeX the snapped eye x coordinate (see {@link #snapEye(double)}).
+     * @param eyeY the snapped eye y coordinate.
+     * @param eyeZ the snapped eye z coordinate.
+     * @param x the target block x coordinate.
+     * @param y the target block y coordinate.
+     * @param z the target block z coordinate.
+     * @return true if the target block can be seen from the eye position, using the cached result if there is one.
+     */
+    private boolean canSee(int eyeX, int eyeY, int eyeZ, int x, int y, int z)
+    {
+        Key key = new Key(eyeX, eyeY, eyeZ, BlockPos.asLong(x, y, z));
+        Entry entry = entries.get(key);
+        long gameTime = world.getGameTime();
+
+        if (entry != null && gameTime - entry.time < MAX_AGE)
+        {
+            return entry.visible;
+        }
+
+        Vector3d eyePos = new Vector3d((eyeX + 0.5) / EYE_GRID, (eyeY + 0.5) / EYE_GRID, (eyeZ + 0.5) / EYE_GRID);
+        boolean visible = testVisibility(blocks, eyePos, x, y, z);
+
+        if (entry != null)
+        {
+            remove(entry);
+        }
+
+        if (entries.size() >= MAX_ENTRIES || sectionEntryCount >= MAX_ENTRIES * 4)
+        {
+            entries.clear();
+            entriesBySection.clear();
+            sectionEntryCount = 0;
+        }
+
+        add(new Entry(key, eyePos, x, y, z, visible, gameTime));
+
+        return visible;
+    }
+
+    /**
+     * Walks the voxel grid from the start position to the end position, testing each block passed through.
+     *
+     * @param blockReader the blocks to test against.
+     * @param testPos the position used to read each block.
+     * @param from the start of the ray.
+     * @param to the end of the ray (must be within the target block).
+     * @param targetX the target block x coordinate.
+     * @param targetY the target block y coordinate.
+     * @param targetZ the target block z coordinate.
+     * @return true if the ray reaches the target block without being blocked.
+     */
+    private static boolean traverse(@Nonnull IBlockReader blockReader, @Nonnull BlockPos.Mutable testPos, @Nonnull Vector3d from, @Nonnull Vector3d to, int targetX, int targetY, int targetZ)
+    {
+        int x = MathHelper.floor(from.x);
+        int y = MathHelper.floor(from.y);
+        int z = MathHelper.floor(from.z);
+
+        double dx = to.x - from.x;
+        double dy = to.y - from.y;
+        double dz = to.z - from.z;
+
+        int stepX = (int) Math.signum(dx);
+        int stepY = (int) Math.signum(dy);
+        int stepZ = (int) Math.signum(dz);
+
+        // How far along the ray (as a fraction of its length) it takes to cross a whole block on each axis.
+        double deltaX = stepX == 0 ? Double.MAX_VALUE : 1.0 / Math.abs(dx);
+        double deltaY = stepY == 0 ? Double.MAX_VALUE : 1.0 / Math.abs(dy);
+        double deltaZ = stepZ == 0 ? Double.MAX_VALUE : 1.0 / Math.abs(dz);
+
+        // How far along the ray it takes to reach the next block boundary on each axis.
+        double maxX = stepX == 0 ? Double.MAX_VALUE : deltaX * (stepX > 0 ? x + 1 - from.x : from.x - x);
+        double maxY = stepY == 0 ? Double.MAX_VALUE : deltaY * (stepY > 0 ? y + 1 - from.y : from.y - y);
+        double maxZ = stepZ == 0 ? Double.MAX_VALUE : deltaZ * (stepZ > 0 ? z + 1 - from.z : from.z - z);
+
+        int maxSteps = Math.abs(targetX - x) + Math.abs(targetY - y) + Math.abs(targetZ - z) + 1;
+
+        for (int i = 0; i < maxSteps; i++)
+        {
+            if (x == targetX && y == targetY && z == targetZ)
+            {
+                return true;
+            }
+
+            if (blocksRay(blockReader, testPos.set(x, y, z), from, to))
+            {
+                return false;
+            }
+
+            if (maxX < maxY && maxX < maxZ)
+            {
+                x += stepX;
+                maxX += deltaX;
+            }
+            else if (maxY < maxZ)
+            {
+                y += stepY;
+                maxY += deltaY;
+            }
+            else
+            {
+                z += stepZ;
+                maxZ += deltaZ;
+            }
+        }
+
+        return x == targetX && y == targetY && z == targetZ;
+    }
+
+    /**
+     * @return true if the block or fluid at the given position intersects the ray.
+     */
+    private static boolean blocksRay(@Nonnull IBlockReader blockReader, @Nonnull BlockPos testPos, @Nonnull Vector3d from, @Nonnull Vector3d to)
+    {
+        BlockState blockState = blockReader.getBlockState(testPos);
+
+        if (blockState.isAir(blockReader, testPos))
+        {
+            return false;
+        }
+
+        VoxelShape shape = blockState.getShape(blockReader, testPos);
+
+        if (shape == VoxelShapes.block())
+        {
+            return true;
+        }
+
+        if (!shape.isEmpty() && shape.clip(from, to, testPos) != null)
+        {
+            return true;
+        }
+
+        FluidState fluidState = blockState.getFluidState();
+
+        return !fluidState.isEmpty() && fluidState.getShape(blockReader, testPos).clip(from, to, testPos) != null;
+    }
+
+    /**
+     * Adds the given entry to the cache.
+     *
+     * @param entry the entry to add.
+     */
+    private void add(@Nonnull Entry entry)
+    {
+        entries.put(entry.key, entry);
+
+        for (int sectionX = entry.minX >> 4; sectionX <= entry.maxX >> 4; sectionX++)
+        {
+            for (int sectionY = entry.minY >> 4; sectionY <= entry.maxY >> 4; sectionY++)
+            {
+                for (int sectionZ = entry.minZ >> 4; sectionZ <= entry.maxZ >> 4; sectionZ++)
+                {
+                    long sectionPos = SectionPos.asLong(sectionX, sectionY, sectionZ);
+                    List<Entry> sectionEntries = entriesBySection.get(sectionPos);
+
+                    if (sectionEntries == null)
+                    {
+                        sectionEntries = new ArrayList<>();
+                        entriesBySection.put(sectionPos, sectionEntries);
+                    }
+
+                    sectionEntries.add(entry);
+                    sectionEntryCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the given entry from the cache.
+     * The entry is left in the section lists and lazily removed from them.
+     *
+     * @param entry the entry to remove.
+     */
+    private void remove(@Nonnull Entry entry)
+    {
+        entry.removed = true;
+        entries.remove(entry.key, entry);
+    }
+
+    /**
+     * @param coord an eye coordinate.
+     * @return the coordinate snapped to the eye grid.
+     */
+    private static int snapEye(double coord)
+    {
+        return MathHelper.floor(coord * EYE_GRID);
+    }
+
+    /**
+     * The key for a cached result.
+     */
+    private static class Key
+    {
+        /**
+         * The snapped eye x coordinate.
+         */
+        private final int eyeX;
+
+        /**
+         * The snapped eye y coordinate.
+         */
+        private final int eyeY;
+
+        /**
+         * The snapped eye z coordinate.
+         */
+        private final int eyeZ;
+
+        /**
+         * The target block position packed into a long.
+         */
+        private final long target;
+
+        /**
+         * @param eyeX the snapped eye x coordinate.
+         * @param eyeY the snapped eye y coordinate.
+         * @param eyeZ the snapped eye z coordinate.
+         * @param target the target block position packed into a long.
+         */
+        private Key(int eyeX, int eyeY, int eyeZ, long target)
+        {
+            this.eyeX = eyeX;
+            this.eyeY = eyeY;
+            this.eyeZ = eyeZ;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (obj instanceof Key)
+            {
+                Key key = (Key) obj;
+
+                return key.eyeX == eyeX && key.eyeY == eyeY && key.eyeZ == eyeZ && key.target == target;
+            }
+
+            return false;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(eyeX, eyeY, eyeZ, target);
+        }
+    }
+
+    /**
+     * A cached result.
+     */
+    private static class Entry
+    {
+        /**
+         * The key of the result.
+         */
+        @Nonnull
+        private final Key key;
+
+        /**
+         * The minimum x coordinate of the blocks the rays could pass through.
+         */
+        private final int minX;
+
+        /**
+         * The minimum y coordinate of the blocks the rays could pass through.
+         */
+        private final int minY;
+
+        /**
+         * The minimum z coordinate of the blocks the rays could pass through.
+         */
+        private final int minZ;
+
+        /**
+         * The maximum x coordinate of the blocks the rays could pass through.
+         */
+        private final int maxX;
+
+        /**
+         * The maximum y coordinate of the blocks the rays could pass through.
+         */
+        private final int maxY;
+
+        /**
+         * The maximum z coordinate of the blocks the rays could pass through.
+         */
+        private final int maxZ;
+
+        /**
+         * Whether the target could be seen.
+         */
+        private final boolean visible;
+
+        /**
+         * The game time the result was tested at.
+         */
+        private final long time;
+
+        /**
+         * Whether the entry has been removed from the cache.
+         */
+        private boolean removed = false;
+
+        /**
+         * @param key the key of the result.
+         * @param eyePos the eye position the rays started from.
+         * @param x the target block x coordinate.
+         * @param y the target block y coordinate.
+         * @param z the target block z coordinate.
+         * @param visible whether the target could be seen.
+         * @param time the game time the result was tested at.
+         */
+        private Entry(@Nonnull Key key, @Nonnull Vector3d eyePos, int x, int y, int z, boolean visible, long time)
+        {
+            this.key = key;
+            this.minX = Math.min(MathHelper.floor(eyePos.x), x);
+            this.minY = Math.min(MathHelper.floor(eyePos.y), y);
+            this.minZ = Math.min(MathHelper.floor(eyePos.z), z);
+            this.maxX = Math.max(MathHelper.floor(eyePos.x), x);
+            this.maxY = Math.max(MathHelper.floor(eyePos.y), y);
+            this.maxZ = Math.max(MathHelper.floor(eyePos.z), z);
+            this.visible = visible;
+            this.time = time;
+        }
+
+        /**
+         * @return true if the given position is within the area the rays could pass through.
+         */
+        private boolean contains(int x, int y, int z)
+        {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.willr27.blocklings.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.DoorBlock;
+import net.minecraft.block.FenceGateBlock;
+import net.minecraft.block.TrapDoorBlock;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.pathfinding.PathType;
+import net.minecraft.tags.FluidTags;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.shapes.VoxelShape;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Classifies positions by whether a blockling can stand at or move through them, caching each position read.
+ * A cheaper approximation of the vanilla node evaluator, used by searches that cover far more positions than a path would.
+ * Only reads chunks that are already loaded, so any unloaded position has no floor and can't be stood at.
+ * Doors, fence gates and trapdoors are always treated as open, as they can open or close without any block event being fired.
+ */
+public class WalkabilityReader
+{
+    /**
+     * The type of a position that has not been read yet.
+     */
+    private static final byte UNKNOWN = 0;
+
+    /**
+     * The type of a position that can't be moved through.
+     */
+    public static final byte BLOCKED = 1;
+
+    /**
+     * The type of a position that can be moved through but not stood at (e.g. air above air).
+     */
+    public static final byte PASSABLE = 2;
+
+    /**
+     * The type of a position that can be stood at (or swum in).
+     */
+    public static final byte STANDABLE = 3;
+
+    /**
+     * The max number of blocks a blockling can drop down in a single step.
+     */
+    public static final int MAX_STEP_DROP = 3;
+
+    /**
+     * The vertical offsets of the positions a step can end at, in the order they should be tested.
+     */
+    public static final int[] STEP_OFFSETS_Y = new int[] { 0, 1, -1, -2, -3 };
+
+    /**
+     * Used to read blocks.
+     */
+    @Nonnull
+    private final LoadedBlockReader blocks;
+
+    /**
+     * The cached type of each position read.
+     */
+    @Nonnull
+    private final Long2ByteOpenHashMap types = new Long2ByteOpenHashMap();
+
+    /**
+     * Reused when reading blocks.
+     */
+    @Nonnull
+    private final BlockPos.Mutable mutablePos = new BlockPos.Mutable();
+
+    /**
+     * @param world the world to read from.
+     */
+    public WalkabilityReader(@Nonnull World world)
+    {
+        this.blocks = new LoadedBlockReader(world);
+    }
+
+    /**
+     * Clears the cached types, should be called before each search as blocks may have changed.
+     */
+    public void clear()
+    {
+        types.clear();
+    }
+
+    /**
+     * @param blockPos the position (as a long).
+     * @return the type of the given position (see {@link #BLOCKED}, {@link #PASSABLE} and {@link #STANDABLE}).
+     */
+    public byte getType(long blockPos)
+    {
+        byte type = types.get(blockPos);
+
+        if (type != UNKNOWN)
+        {
+            return type;
+        }
+
+        mutablePos.set(blockPos);
+
+        BlockState blockState = blocks.getBlockState(mutablePos);
+        FluidState fluidState = blockState.getFluidState();
+
+        if (fluidState.is(FluidTags.LAVA) || (!isOpenable(blockState.getBlock()) && !blockState.isPathfindable(blocks, mutablePos, PathType.LAND)))
+        {
+            type = BLOCKED;
+        }
+        else if (fluidState.is(FluidTags.WATER))
+        {
+            type = STANDABLE;
+        }
+        else
+        {
+            mutablePos.move(Direction.DOWN);
+
+            BlockState belowBlockState = blocks.getBlockState(mutablePos);
+
+            VoxelShape belowCollisionShape = belowBlockState.getCollisionShape(blocks, mutablePos);
+
+            if (!belowCollisionShape.isEmpty() && belowCollisionShape.max(Direction.Axis.Y) > 1.0)
+            {
+                // Blocks taller than a full block (e.g. fences and walls) stick up into this position.
+                type = BLOCKED;
+            }
+            else
+            {
+                type = !belowCollisionShape.isEmpty() && !belowBlockState.getFluidState().is(FluidTags.LAVA) ? STANDABLE : PASSABLE;
+            }
+        }
+
+        types.put(blockPos, type);
+
+        return type;
+    }
+
+    /**
+     * @param block the block.
+     * @return true if the given block can be opened and closed (e.g. a door), so may be passable even when it is currently closed.
+     */
+    private static boolean isOpenable(@Nonnull Block block)
+    {
+        return block instanceof DoorBlock || block instanceof FenceGateBlock || block instanceof TrapDoorBlock;
+    }
+
+    /**
+     * @param blockPos the position (as a long).
+     * @return true if the given position can be stood at.
+     */
+    public boolean isStandable(long blockPos)
+    {
+        return getType(blockPos) == STANDABLE;
+    }
+
+    /**
+     * Checks whether an entity of the given size can stand at the given position.
+     * The position itself needs to be standable, and every position the entity's bounding box covers needs to be clear.
+     *
+     * @param blockPos the position (as a long).
+     * @param width the width of the entity in blocks (rounded up).
+     * @param height the height of the entity in blocks (rounded up).
+     * @return true if the given position can be stood at by an entity of the given size.
+     */
+    public boolean isStandable(long blockPos, int width, int height)
+    {
+        if (!isStandable(blockPos))
+        {
+            return false;
+        }
+
+        int x = BlockPos.getX(blockPos);
+        int y = BlockPos.getY(blockPos);
+        int z = BlockPos.getZ(blockPos);
+
+        for (int offsetY = 0; offsetY < height; offsetY++)
+        {
+            if (!isClear(x, y + offsetY, z, width))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether a blockling standing at one position can step to a horizontally adjacent position.
+     * Both positions are assumed to be standable.
+     * Stepping up needs room to jump, and stepping down needs the column above the lower position to be clear to fall through.
+     *
+     * @param fromX the x coordinate of the position being stepped from.
+     * @param fromY the y coordinate of the position being stepped from.
+     * @param fromZ the z coordinate of the position being stepped from.
+     * @param toX the x coordinate of the position being stepped to.
+     * @param toY the y coordinate of the position being stepped to.
+     * @param toZ the z coordinate of the position being stepped to.
+     * @return true if the step can be taken.
+     */
+    public boolean canStep(int fromX, int fromY, int fromZ, int toX, int toY, int toZ)
+    {
+        return canStep(fromX, fromY, fromZ, toX, toY, toZ, 1, 1);
+    }
+
+    /**
+     * Checks whether an entity of the given size standing at one position can step to a horizontally adjacent position.
+     * Both positions are assumed to be standable by an entity of the given size (see {@link #isStandable(long, int, int)}).
+     * Stepping up needs room above the entity to jump, and stepping down needs the space above the lower position to be clear to fall through.
+     *
+     * @param fromX the x coordinate of the position being stepped from.
+     * @param fromY the y coordinate of the position being stepped from.
+     * @param fromZ the z coordinate of the position being stepped from.
+     * @param toX the x coordinate of the position being stepped to.
+     * @param toY the y coordinate of the position being stepped to.
+     * @param toZ the z coordinate of the position being stepped to.
+     * @param width the width of the entity in blocks (rounded up).
+     * @param height the height of the entity in blocks (rounded up).
+     * @return true if the step can be taken.
+     */
+    public boolean canStep(int fromX, int fromY, int fromZ, int toX, int toY, int toZ, int width, int height)
+    {
+        if (fromY < toY)
+        {
+            return toY - fromY == 1 && isClear(fromX, fromY + height, fromZ, width);
+        }
+
+        if (fromY - toY > MAX_STEP_DROP)
+        {
+            return false;
+        }
+
+        for (int y = toY + height; y < fromY + height; y++)
+        {
+            if (!isClear(toX, y, toZ, width))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param x the x coordinate of the centre of the area.
+     * @param y the y coordinate of the area.
+     * @param z the z coordinate of the centre of the area.
+     * @param width the width of the area in blocks.
+     * @return true if every position in the square area of the given width around the given position can be moved through.
+     */
+    private boolean isClear(int x, int y, int z, int width)
+    {
+        int minX = x - (width - 1) / 2;
+        int minZ = z - (width - 1) / 2;
+
+        for (int offsetX = 0; offsetX < width; offsetX++)
+        {
+            for (int offsetZ = 0; offsetZ < width; offsetZ++)
+            {
+                if (getType(BlockPos.asLong(minX + offsetX, y, minZ + offsetZ)) < PASSABLE)
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}